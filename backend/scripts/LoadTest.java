@@ -0,0 +1,101 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator used by load-compare.sh. Runs without a build:
+ *
+ *   java scripts/LoadTest.java http://localhost:8080 400 30 /api/users /api/audit/ID
+ *
+ * Each of {@code concurrency} clients sends GET requests to the given paths in
+ * turn for {@code seconds} and then prints throughput, latency percentiles and
+ * the number of failed requests (non-2xx or I/O errors) as one line.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("usage: LoadTest <base-url> <concurrency> <seconds> <path>...");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int concurrency = Integer.parseInt(args[1]);
+        long seconds = Long.parseLong(args[2]);
+        List<URI> uris = new ArrayList<>();
+        for (String path : Arrays.copyOfRange(args, 3, args.length)) {
+            uris.add(URI.create(baseUrl + path));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong failures = new AtomicLong();
+        List<long[]> perClient = new ArrayList<>();
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            int offset = c;
+            perClient.add(null);
+            int index = c;
+            clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size()))
+                            .header("User-Id", "loadtest")
+                            .timeout(Duration.ofSeconds(60))
+                            .GET()
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() / 100 != 2) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                synchronized (perClient) {
+                    perClient.set(index, Arrays.copyOf(latencies, count));
+                }
+                return null;
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(seconds + 120, TimeUnit.SECONDS);
+
+        long[] all;
+        synchronized (perClient) {
+            all = perClient.stream().filter(l -> l != null).flatMapToLong(Arrays::stream).toArray();
+        }
+        Arrays.sort(all);
+        System.out.printf("requests=%d failed=%d throughput=%.1f/s p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+                all.length, failures.get(), all.length / (double) seconds,
+                percentile(all, 50), percentile(all, 95), percentile(all, 99), percentile(all, 100));
+        System.exit(0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
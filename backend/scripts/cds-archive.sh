@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+# Builds the backend as a plain class path with a class-data-sharing archive for
+# fast restarts (see the "Fast startup" section of the README).
+#
+# Usage: scripts/cds-archive.sh [extra Spring Boot args...]
+#
+# The fat jar is unpacked into target/startup: the application classes become
+# app.jar and the dependencies stay in lib/, since CDS only archives classes loaded
+# from plain jars on the class path. A training run then starts the application with
+# the fast profile against the database configured in application.properties (or the
+# extra args), sends a few requests without session tokens and stops it; the JVM
+# writes every class it loaded to app.jsa on exit. Start the result with
+#
+#   java @target/startup/jvm.args --spring.profiles.active=fast [args...]
+#
+# The archive only matches the exact JDK and class path it was built with, so run
+# this again after every build and on the machine (or image) that will use it. A
+# stale archive is ignored with a warning rather than breaking the start.
+#
+# Extra JVM flags for the argfile can be given in STARTUP_JVM_FLAGS; none by default.
+# STARTUP_JVM_FLAGS=-XX:TieredStopAtLevel=1 runs only the quick C1 compiler, which
+# shortens startup further but lowers the steady-state throughput of a long-running
+# server, so only use it where restarts matter more than peak throughput.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAVA=${JAVA:-java}
+PORT=${PORT:-18080}
+BASE=http://localhost:$PORT
+# Extra jars for the class path, e.g. a JDBC driver for a local database
+EXTRA_CP=${EXTRA_CP:-}
+STARTUP_JVM_FLAGS=${STARTUP_JVM_FLAGS:-}
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/ftms-*.jar | grep -v original | head -1)
+
+OUT=target/startup
+rm -rf "$OUT"
+mkdir -p "$OUT/unpacked" "$OUT/lib"
+(cd "$OUT/unpacked" && jar xf "../../../$JAR")
+jar cf "$OUT/app.jar" -C "$OUT/unpacked/BOOT-INF/classes" .
+CP=$PWD/$OUT/app.jar
+# classpath.idx keeps the dependency order of the fat jar
+while read -r entry; do
+    lib=${entry#- \"BOOT-INF/lib/}
+    lib=${lib%\"}
+    mv "$OUT/unpacked/BOOT-INF/lib/$lib" "$OUT/lib/$lib"
+    CP=$CP:$PWD/$OUT/lib/$lib
+done < "$OUT/unpacked/BOOT-INF/classpath.idx"
+rm -rf "$OUT/unpacked"
+[ -n "$EXTRA_CP" ] && CP=$CP:$EXTRA_CP
+
+{
+    printf -- '-XX:SharedArchiveFile=%s\n-Xlog:cds=off\n-Xlog:cds+dynamic=off\n' "$PWD/$OUT/app.jsa"
+    for flag in $STARTUP_JVM_FLAGS; do
+        printf -- '%s\n' "$flag"
+    done
+    printf -- '-cp %s\ncom.ftms.backend.FtmsBackendApplication\n' "$CP"
+} > "$OUT/jvm.args"
+
+# Training run
+"$JAVA" -XX:ArchiveClassesAtExit="$OUT/app.jsa" -cp "$CP" com.ftms.backend.FtmsBackendApplication \
+    --server.port="$PORT" --spring.profiles.active=fast --ftms.auth.require-token=false "$@" > "$OUT/training.log" 2>&1 &
+pid=$!
+trap "kill $pid 2>/dev/null" EXIT
+for _ in $(seq 1 120); do
+    curl -s -o /dev/null "$BASE/api/users" && break
+    sleep 1
+done
+for path in "/api/users" "/api/files/search?query=a" "/api/files/search?query=a&pageSize=10" "/api/cache/stats"; do
+    curl -s -o /dev/null -H 'User-Id: cds-training' "$BASE$path" || true
+done
+kill "$pid"
+wait "$pid" 2>/dev/null || true
+trap - EXIT
+
+if [ ! -s "$OUT/app.jsa" ]; then
+    echo "No archive written; see $OUT/training.log" >&2
+    exit 1
+fi
+echo "Wrote $OUT/app.jsa ($(du -h "$OUT/app.jsa" | cut -f1)); start with: $JAVA @$OUT/jvm.args --spring.profiles.active=fast"
@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Compares request handling on platform threads with virtual threads
+# (ftms.threads.virtual, see VirtualThreadConfig) under the same load.
+#
+# Usage: scripts/load-compare.sh [concurrency] [seconds] [extra Spring Boot args...]
+#
+# The backend is built once, then started twice against the database configured in
+# application.properties (or the extra args): first with the default Tomcat pool,
+# then with virtual threads. Each run gets a warm-up and then a measured run of
+# LoadTest.java against reads that hit the database. JAVA must point to a Java 21
+# runtime, since virtual-thread mode does not start on older ones. Rate limiting is
+# turned off, since all load comes from one user, and so are session tokens, since
+# the load test sends a bare User-Id.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CONCURRENCY=${1:-400}
+SECONDS_PER_RUN=${2:-30}
+shift $(( $# > 2 ? 2 : $# ))
+JAVA=${JAVA:-java}
+PORT=${PORT:-18080}
+BASE=http://localhost:$PORT
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/ftms-*.jar | grep -v original | head -1)
+
+run() {
+    local mode=$1 virtual=$2
+    shift 2
+    "$JAVA" -jar "$JAR" --server.port="$PORT" --ftms.threads.virtual="$virtual" --ftms.ratelimit.enabled=false \
+        --ftms.auth.require-token=false --spring.jpa.show-sql=false "$@" > "target/load-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null" EXIT
+    for _ in $(seq 1 120); do
+        curl -s -o /dev/null "$BASE/api/users" && break
+        sleep 1
+    done
+
+    local id
+    id=$(curl -s -X POST "$BASE/api/files/register" -H 'User-Id: loadtest' -H 'Content-Type: application/json' \
+        -d '{"title":"load test","status":"Created","currentOfficer":"loadtest","courseCode":"LT101","examSession":"2024"}' \
+        | sed -n 's/.*"id":"\([^"]*\)".*/\1/p')
+    local paths=(/api/users "/api/audit/$id" "/api/files/$id/events" "/api/files/search?query=load")
+
+    "$JAVA" scripts/LoadTest.java "$BASE" "$CONCURRENCY" 10 "${paths[@]}" > /dev/null
+    echo "$mode: $("$JAVA" scripts/LoadTest.java "$BASE" "$CONCURRENCY" "$SECONDS_PER_RUN" "${paths[@]}")"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+echo "concurrency=$CONCURRENCY seconds=$SECONDS_PER_RUN java=$("$JAVA" -version 2>&1 | head -1)"
+run platform false "$@"
+run virtual true "$@"
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Compares time to the first served request in the default mode, the fast profile
+# (application-fast.properties), the fast profile with the class-data-sharing archive
+# written by scripts/cds-archive.sh, and the same again with the JIT limited to C1
+# (-XX:TieredStopAtLevel=1), which is opt-in and reported on its own.
+#
+# Usage: scripts/startup-compare.sh [runs] [extra Spring Boot args...]
+#
+# Every mode is started [runs] times (default 3) against the database configured in
+# application.properties (or the extra args), which must already have its schema,
+# since the fast profile does not update it. Each run polls GET /api/users until it
+# answers; the median wall time from launch to that answer is reported together with
+# the StartupReport lines of the last run. cds-archive.sh is run first, so the jar
+# and the archive match; pass EXTRA_CP for a JDBC driver that is not in the build.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-3}
+shift $(( $# > 0 ? 1 : 0 ))
+JAVA=${JAVA:-java}
+PORT=${PORT:-18080}
+BASE=http://localhost:$PORT
+EXTRA_CP=${EXTRA_CP:-}
+
+PORT=$PORT scripts/cds-archive.sh "$@"
+OUT=target/startup
+CP=$(sed -n 's/^-cp //p' "$OUT/jvm.args")
+
+now_ms() { date +%s%3N; }
+
+measure() {
+    local mode=$1
+    shift
+    local times=()
+    for run in $(seq 1 "$RUNS"); do
+        local start
+        start=$(now_ms)
+        "$@" --server.port="$PORT" --ftms.auth.require-token=false > "$OUT/$mode.log" 2>&1 &
+        local pid=$!
+        trap "kill $pid 2>/dev/null" EXIT
+        until [ "$(curl -s -o /dev/null -w '%{http_code}' -H 'User-Id: startup' "$BASE/api/users")" = 200 ]; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$mode did not start; see $OUT/$mode.log" >&2
+                exit 1
+            fi
+            sleep 0.05
+        done
+        times+=($(( $(now_ms) - start )))
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        trap - EXIT
+    done
+    local median
+    median=$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")
+    printf '%-11s first request after %6d ms (median of %s: %s)\n' "$mode" "$median" "$RUNS" "${times[*]}"
+    grep -o 'Startup: .*' "$OUT/$mode.log" | sed 's/^/            /'
+}
+
+# All modes use the unpacked class path, so only the profile and the archive differ
+measure default "$JAVA" -cp "$CP" com.ftms.backend.FtmsBackendApplication "$@"
+measure fast "$JAVA" -cp "$CP" com.ftms.backend.FtmsBackendApplication --spring.profiles.active=fast "$@"
+measure fast-cds "$JAVA" @"$OUT/jvm.args" --spring.profiles.active=fast "$@"
+measure fast-cds-c1 "$JAVA" -XX:TieredStopAtLevel=1 @"$OUT/jvm.args" --spring.profiles.active=fast "$@"
@@ -0,0 +1,212 @@
+package com.ftms.backend.audit;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.persistence.TimeOrderedUuid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Streams audit entries matching a filter straight from a forward-only JDBC
+ * cursor (or a sequential scan of the {@link AuditJournal}) to an output
+ * stream as NDJSON or CSV. Rows are written as they are read, so memory use
+ * does not depend on the size of the export.
+ *
+ * {@code ftms.audit.export.fetch-size} defaults to Integer.MIN_VALUE, which
+ * makes MySQL Connector/J stream the result set row by row instead of
+ * buffering it; other drivers need a positive value.
+ */
+@Component
+public class AuditExporter {
+
+    public enum Format { NDJSON, CSV }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
+
+    @Value("${ftms.audit.export.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    // Read-only so that, with replicas configured, the export runs against a replica.
+    @Transactional(readOnly = true)
+    public void export(String userId, String action, LocalDateTime from, LocalDateTime to,
+                       Format format, OutputStream out) throws IOException {
+        try (RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out)) {
+            if (auditJournal != null) {
+                auditJournal.forEach(entry -> {
+                    if (matches(entry, userId, action, from, to)) {
+                        writer.writeUnchecked(entry);
+                    }
+                });
+            } else {
+                exportFromTable(userId, action, from, to, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void exportFromTable(String userId, String action, LocalDateTime from, LocalDateTime to,
+                                 RowWriter writer) throws IOException {
+        StringBuilder sql = new StringBuilder("select log_id, file_id, action, user_id, timestamp from audit_log where 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (userId != null) {
+            sql.append(" and user_id = ?");
+            params.add(userId);
+        }
+        if (action != null) {
+            sql.append(" and action = ?");
+            params.add(action);
+        }
+        if (from != null) {
+            sql.append(" and timestamp >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" and timestamp < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        sql.append(" order by timestamp, log_id");
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                AuditLog entry = new AuditLog();
+                while (rs.next()) {
+                    entry.setLogId(TimeOrderedUuid.fromBytes(rs.getBytes(1)));
+                    entry.setFileId(rs.getString(2));
+                    entry.setAction(rs.getString(3));
+                    entry.setUserId(rs.getString(4));
+                    Timestamp timestamp = rs.getTimestamp(5);
+                    entry.setTimestamp(timestamp == null ? null : timestamp.toLocalDateTime());
+                    writer.write(entry);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Audit export failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static boolean matches(AuditLog entry, String userId, String action, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime time = entry.getTimestamp();
+        return (userId == null || Objects.equals(userId, entry.getUserId()))
+                && (action == null || Objects.equals(action, entry.getAction()))
+                && (from == null || (time != null && !time.isBefore(from)))
+                && (to == null || (time != null && time.isBefore(to)));
+    }
+
+    private abstract static class RowWriter implements AutoCloseable {
+        abstract void write(AuditLog entry) throws IOException;
+
+        void writeUnchecked(AuditLog entry) {
+            try {
+                write(entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public abstract void close() throws IOException;
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(AuditLog entry) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("logId", entry.getLogId());
+            generator.writeStringField("fileId", entry.getFileId());
+            generator.writeStringField("action", entry.getAction());
+            generator.writeStringField("userId", entry.getUserId());
+            generator.writeStringField("timestamp", entry.getTimestamp() == null ? null : entry.getTimestamp().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write("logId,fileId,action,userId,timestamp\n");
+        }
+
+        @Override
+        void write(AuditLog entry) throws IOException {
+            writer.write(escape(entry.getLogId()));
+            writer.write(',');
+            writer.write(escape(entry.getFileId()));
+            writer.write(',');
+            writer.write(escape(entry.getAction()));
+            writer.write(',');
+            writer.write(escape(entry.getUserId()));
+            writer.write(',');
+            writer.write(entry.getTimestamp() == null ? "" : entry.getTimestamp().toString());
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.ftms.backend.audit;
+
+import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.paging.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only audit storage on local disk, enabled with {@code ftms.audit.store=journal}.
+ *
+ * Records are appended to fixed-size, memory-mapped segment files
+ * ({@code audit-000000.seg}, {@code audit-000001.seg}, ...) and a new segment
+ * is started when the current one is full. Each record is framed as
+ * {@code [int length][int crc32][payload]}; a zero length marks the end of the
+ * written part of a segment. An in-memory index maps every fileId to the
+ * packed (segment, offset) addresses of its records in append order, so the
+ * history of a file is read straight out of the mapped segments. The segment
+ * part of an address is the number in the file name, and a new segment takes
+ * the highest number on disk plus one, so addresses stay valid when older
+ * segments are removed.
+ *
+ * On startup every segment is scanned to rebuild the index. The scan stops at
+ * the first record that is truncated or fails its checksum, which is where a
+ * crash interrupted the last append; that tail is zeroed and writing resumes
+ * from there.
+ */
+@Component
+@ConditionalOnProperty(name = "ftms.audit.store", havingValue = "journal")
+public class AuditJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Value("${ftms.audit.journal.dir:audit-journal}")
+    private String directory;
+
+    @Value("${ftms.audit.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Keyed by the number in the segment's file name
+    private final NavigableMap<Integer, MappedByteBuffer> segments = new TreeMap<>();
+    private final Map<String, OffsetList> index = new ConcurrentHashMap<>();
+    private Path root;
+    private int segmentSize;
+    private MappedByteBuffer active;
+    private int activeNo;
+
+    @PostConstruct
+    public void open() throws IOException {
+        root = Paths.get(directory);
+        segmentSize = segmentSizeMb * 1024 * 1024;
+        Files.createDirectories(root);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(root)) {
+            files = listing
+                    .filter(p -> segmentNumber(p) >= 0)
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            segments.put(segmentNumber(file), map(file, Math.max(segmentSize, (int) Files.size(file))));
+        }
+        for (Map.Entry<Integer, MappedByteBuffer> segment : segments.entrySet()) {
+            recover(segment.getKey(), segment.getValue());
+        }
+        if (segments.isEmpty()) {
+            roll();
+        }
+        activeNo = segments.lastKey();
+        active = segments.get(activeNo);
+        log.info("Audit journal opened at {}: {} segment(s), {} file(s) indexed",
+                root.toAbsolutePath(), segments.size(), index.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (active != null) {
+                active.force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Appends the entries in order and forces them to disk before returning. */
+    public void append(List<AuditLog> entries) {
+        lock.writeLock().lock();
+        try {
+            for (AuditLog entry : entries) {
+                byte[] payload = encode(entry);
+                if (active.remaining() < HEADER_SIZE + payload.length + 4) {
+                    active.force();
+                    roll();
+                }
+                int segmentNo = activeNo;
+                int offset = active.position();
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                active.putInt(payload.length);
+                active.putInt((int) crc.getValue());
+                active.put(payload);
+                index.computeIfAbsent(entry.getFileId(), k -> new OffsetList()).add(address(segmentNo, offset));
+            }
+            active.force();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Returns the audit history of a file in append (and therefore time) order. */
+    public List<AuditLog> findByFileId(String fileId) {
+        OffsetList offsets = index.get(fileId);
+        if (offsets == null) {
+            return Collections.emptyList();
+        }
+        long[] addresses = offsets.toArray();
+        List<AuditLog> result = new ArrayList<>(addresses.length);
+        lock.readLock().lock();
+        try {
+            for (long address : addresses) {
+                result.add(read(address));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Range variant of {@link #findByFileId(String)}. Records are visited in append
+     * order (reversed when {@code descending}) and the scan stops as soon as
+     * {@code limit} matches are found, so reading the newest entries of a long
+     * history only touches those records.
+     */
+    public List<AuditLog> findByFileId(String fileId, LocalDateTime from, LocalDateTime to,
+                                       KeysetCursor after, boolean descending, int limit) {
+        OffsetList offsets = index.get(fileId);
+        if (offsets == null) {
+            return Collections.emptyList();
+        }
+        long[] addresses = offsets.toArray();
+        List<AuditLog> result = new ArrayList<>(Math.min(limit, addresses.length));
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < addresses.length && result.size() < limit; i++) {
+                AuditLog entry = read(addresses[descending ? addresses.length - 1 - i : i]);
+                LocalDateTime time = entry.getTimestamp();
+                if (from != null && (time == null || time.isBefore(from))) {
+                    continue;
+                }
+                if (to != null && (time == null || !time.isBefore(to))) {
+                    continue;
+                }
+                if (after != null) {
+                    int position = new KeysetCursor(time, entry.getLogId()).compareTo(after);
+                    if (descending ? position >= 0 : position <= 0) {
+                        continue;
+                    }
+                }
+                result.add(entry);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Visits every record in append order, segment by segment. Only the list of
+     * segments and how far each was written are read under the lock; the records
+     * themselves are scanned without it, so a long export does not hold up appends.
+     * Records appended after the call are not visited.
+     */
+    public void forEach(Consumer<AuditLog> action) {
+        List<ByteBuffer> views = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments.values()) {
+                views.add(segment.duplicate());
+                ends.add(segment == active ? active.position() : segment.capacity());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < views.size(); i++) {
+            ByteBuffer view = views.get(i);
+            int end = ends.get(i);
+            int position = 0;
+            while (position + HEADER_SIZE <= end) {
+                int length = view.getInt(position);
+                if (length <= 0) {
+                    break;
+                }
+                view.position(position + HEADER_SIZE);
+                action.accept(decode(view));
+                position += HEADER_SIZE + length;
+            }
+        }
+    }
+
+    private AuditLog read(long address) {
+        ByteBuffer view = segments.get((int) (address >>> 32)).duplicate();
+        view.position((int) address + HEADER_SIZE);
+        return decode(view);
+    }
+
+    private void recover(int segmentNo, MappedByteBuffer segment) {
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.capacity()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segment.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer view = segment.duplicate();
+            view.position(position + HEADER_SIZE);
+            view.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.getInt(position + 4)) {
+                break;
+            }
+            AuditLog entry = decode(ByteBuffer.wrap(payload));
+            long address = address(segmentNo, position);
+            index.computeIfAbsent(entry.getFileId(), k -> new OffsetList()).add(address);
+            position += HEADER_SIZE + length;
+        }
+        // Anything past the last valid record is a torn write from a crash; clear it before appending again.
+        if (position + 4 <= segment.capacity() && segment.getInt(position) != 0) {
+            log.warn("Audit journal segment {} has a torn record at offset {}; truncating", segmentNo, position);
+            for (int i = position; i < segment.capacity(); i++) {
+                segment.put(i, (byte) 0);
+            }
+        }
+        segment.position(position);
+    }
+
+    private void roll() throws IOException {
+        int segmentNo = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        Path file = root.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentNo, SEGMENT_SUFFIX));
+        MappedByteBuffer segment = map(file, segmentSize);
+        segments.put(segmentNo, segment);
+        activeNo = segmentNo;
+        active = segment;
+    }
+
+    // The number in an audit-NNNNNN.seg file name, or -1 for any other file
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static long address(int segmentNo, int offset) {
+        return ((long) segmentNo << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static byte[] encode(AuditLog entry) {
+        byte[][] fields = {
+                bytes(entry.getLogId()), bytes(entry.getFileId()), bytes(entry.getAction()), bytes(entry.getUserId())
+        };
+        int size = 8 + 4;
+        for (byte[] field : fields) {
+            size += 2 + (field == null ? 0 : field.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        LocalDateTime timestamp = entry.getTimestamp();
+        buffer.putLong(timestamp == null ? Long.MIN_VALUE : timestamp.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(timestamp == null ? 0 : timestamp.getNano());
+        for (byte[] field : fields) {
+            buffer.putShort(field == null ? -1 : (short) field.length);
+            if (field != null) {
+                buffer.put(field);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static AuditLog decode(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        AuditLog entry = new AuditLog();
+        entry.setTimestamp(seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+        entry.setLogId(string(buffer));
+        entry.setFileId(string(buffer));
+        entry.setAction(string(buffer));
+        entry.setUserId(string(buffer));
+        return entry;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /** Growable list of packed record addresses; appends are rare compared to reads. */
+    private static final class OffsetList {
+        private long[] values = new long[4];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.ftms.backend.audit;
+
+import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.entity.File;
+import com.ftms.backend.event.FileChangedEvent;
+import com.ftms.backend.persistence.TimeOrderedUuid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Records an {@link AuditLog} entry for every file create, update and
+ * reassignment without putting the insert on the request path.
+ *
+ * Events go into a bounded queue and a single background thread writes them
+ * out as JDBC batch inserts once {@code ftms.audit.flush-size} events are
+ * waiting or {@code ftms.audit.flush-interval-ms} has passed. When the queue
+ * is full the caller waits up to {@code ftms.audit.offer-timeout-ms} and then
+ * writes its own event synchronously, so events are never dropped. Everything
+ * still queued is flushed on shutdown.
+ *
+ * A batch that fails is retried every {@code ftms.audit.flush-interval-ms}, at
+ * most {@code ftms.audit.max-retries} times, and then written one row at a
+ * time. A row that cannot be written on its own goes to the
+ * {@code ftms.audit.dead-letter} log, so a single bad row neither blocks the
+ * writer nor takes the rest of its batch with it.
+ *
+ * With {@code ftms.audit.store=journal} batches are appended to the
+ * {@link AuditJournal} instead of the audit_log table.
+ */
+@Component
+public class AuditLogWriter {
+
+    public static final String ACTION_CREATE = "CREATE";
+    public static final String ACTION_UPDATE = "UPDATE";
+    public static final String ACTION_ASSIGN = "ASSIGN";
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+    private static final Logger deadLetter = LoggerFactory.getLogger("ftms.audit.dead-letter");
+
+    private static final String INSERT_SQL =
+            "insert into audit_log (log_id, file_id, action, user_id, timestamp) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
+
+    @Value("${ftms.audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${ftms.audit.flush-size:256}")
+    private int flushSize;
+
+    @Value("${ftms.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${ftms.audit.offer-timeout-ms:1000}")
+    private long offerTimeoutMs;
+
+    @Value("${ftms.audit.max-retries:3}")
+    private int maxRetries;
+
+    private BlockingQueue<AuditLog> buffer;
+    // Only touched by the writer thread
+    private final List<AuditLog> pending = new ArrayList<>();
+    private int failures;
+    private Thread writerThread;
+    private volatile boolean running;
+    // Producers hold the read lock from checking running until their offer returns, so once
+    // stop() has taken the write lock no entry can arrive in the buffer after its final drain.
+    private final ReadWriteLock offerLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        offerLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            offerLock.writeLock().unlock();
+        }
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        if (writerThread.isAlive()) {
+            // The writer is stuck in a write; it flushes its own batch once that returns
+            log.warn("Audit log writer did not stop within 30s");
+        }
+        List<AuditLog> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += flushSize) {
+            flush(remaining.subList(from, Math.min(from + flushSize, remaining.size())));
+        }
+    }
+
+    @EventListener
+    public void onFileChanged(FileChangedEvent event) {
+        File current = event.getCurrent();
+        if (event.isCreate()) {
+            record(current.getId(), ACTION_CREATE, event.getUserId());
+            return;
+        }
+        File previous = event.getPrevious();
+        boolean reassigned = !Objects.equals(previous.getCurrentOfficer(), current.getCurrentOfficer());
+        if (reassigned) {
+            record(current.getId(), ACTION_ASSIGN, event.getUserId());
+        }
+        if (!reassigned || contentChanged(previous, current)) {
+            record(current.getId(), ACTION_UPDATE, event.getUserId());
+        }
+    }
+
+    public void record(String fileId, String action, String userId) {
+        AuditLog entry = new AuditLog();
+        entry.setLogId(TimeOrderedUuid.next());
+        entry.setFileId(fileId);
+        entry.setAction(action);
+        entry.setUserId(userId);
+        entry.setTimestamp(LocalDateTime.now());
+        enqueue(entry);
+    }
+
+    private void enqueue(AuditLog entry) {
+        offerLock.readLock().lock();
+        try {
+            if (running && buffer.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            offerLock.readLock().unlock();
+        }
+        // Buffer full, shutting down or interrupted: the caller pays for its own insert.
+        flush(Collections.singletonList(entry));
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                if (pending.isEmpty()) {
+                    fill();
+                } else {
+                    Thread.sleep(flushIntervalMs); // back off before retrying a failed batch
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts the wait; anything already collected is flushed below
+            }
+            if (pending.isEmpty()) {
+                continue;
+            }
+            if (write(pending)) {
+                pending.clear();
+                failures = 0;
+            } else if (++failures > maxRetries) {
+                writeRows(pending);
+                pending.clear();
+                failures = 0;
+            }
+        }
+        if (!pending.isEmpty()) {
+            flush(pending);
+            pending.clear();
+        }
+    }
+
+    // Waits for the first event, then keeps collecting until the batch is full or the interval has passed.
+    private void fill() throws InterruptedException {
+        AuditLog first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        pending.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (pending.size() < flushSize) {
+            buffer.drainTo(pending, flushSize - pending.size());
+            long waitNanos = deadline - System.nanoTime();
+            if (pending.size() >= flushSize || waitNanos <= 0) {
+                return;
+            }
+            AuditLog next = buffer.poll(waitNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            pending.add(next);
+        }
+    }
+
+    // Writes a batch once, falling back to single rows if that fails
+    private void flush(List<AuditLog> batch) {
+        if (!write(batch)) {
+            writeRows(batch);
+        }
+    }
+
+    // Called after the whole batch failed, so a single row has already had its try
+    private void writeRows(List<AuditLog> batch) {
+        if (batch.size() == 1) {
+            deadLetter(batch.get(0));
+            return;
+        }
+        for (AuditLog entry : batch) {
+            if (!write(Collections.singletonList(entry))) {
+                deadLetter(entry);
+            }
+        }
+    }
+
+    private static void deadLetter(AuditLog entry) {
+        deadLetter.error("{}\t{}\t{}\t{}\t{}", entry.getLogId(), entry.getFileId(), entry.getAction(),
+                entry.getUserId(), entry.getTimestamp());
+    }
+
+    private boolean write(List<AuditLog> batch) {
+        try {
+            if (auditJournal != null) {
+                auditJournal.append(batch);
+                return true;
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                ps.setBytes(1, TimeOrderedUuid.toBytes(entry.getLogId()));
+                ps.setString(2, entry.getFileId());
+                ps.setString(3, entry.getAction());
+                ps.setString(4, entry.getUserId());
+                ps.setTimestamp(5, Timestamp.valueOf(entry.getTimestamp()));
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} audit log entries", batch.size(), e);
+            return false;
+        }
+    }
+
+    private static boolean contentChanged(File previous, File current) {
+        return !Objects.equals(previous.getTitle(), current.getTitle())
+                || !Objects.equals(previous.getStatus(), current.getStatus())
+                || !Objects.equals(previous.getCourseCode(), current.getCourseCode())
+                || !Objects.equals(previous.getExamSession(), current.getExamSession());
+    }
+}
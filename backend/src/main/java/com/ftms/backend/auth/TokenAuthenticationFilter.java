@@ -0,0 +1,135 @@
+package com.ftms.backend.auth;
+
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Verifies the {@code Authorization: Bearer} token of every API request with
+ * {@link TokenService}, without touching the database. The request then
+ * carries the token's user as its {@code User-Id} header, replacing whatever
+ * the client sent, so handlers and interceptors keep reading that header.
+ *
+ * A request without a token is refused unless {@code ftms.auth.require-token}
+ * is off, in which case it keeps the client's {@code User-Id} as before. Login
+ * and refresh need no token. Registration is let through without one so the
+ * first user can be created; {@code AuthController} checks the role in
+ * {@link #ROLE_ATTRIBUTE} for everything after that.
+ */
+@Component
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String USER_ID_HEADER = "User-Id";
+    public static final String ROLE_ATTRIBUTE = TokenAuthenticationFilter.class.getName() + ".role";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Value("${ftms.auth.require-token:true}")
+    private boolean requireToken;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/")
+                || path.equals("/api/auth/login")
+                || path.equals("/api/auth/refresh")
+                || CorsUtils.isPreFlightRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = bearerToken(request);
+        if (token == null) {
+            if (requireToken && !isRegistration(request)) {
+                reject(response, "Bearer", "Missing bearer token");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        TokenService.Session session;
+        try {
+            session = tokenService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            reject(response, "Bearer error=\"invalid_token\"", "Invalid or expired token");
+            return;
+        }
+        request.setAttribute(ROLE_ATTRIBUTE, session.getRole());
+        chain.doFilter(new AuthenticatedRequest(request, session.getUserId()), response);
+    }
+
+    private static boolean isRegistration(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length()).equals("/api/auth/register");
+    }
+
+    /** The token of an {@code Authorization: Bearer} header, or null if there is none. */
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private static void reject(HttpServletResponse response, String challenge, String message) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private static final class AuthenticatedRequest extends HttpServletRequestWrapper {
+        private final String userId;
+
+        AuthenticatedRequest(HttpServletRequest request, String userId) {
+            super(request);
+            this.userId = userId;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return USER_ID_HEADER.equalsIgnoreCase(name) ? userId : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return USER_ID_HEADER.equalsIgnoreCase(name)
+                    ? Collections.enumeration(Collections.singletonList(userId))
+                    : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = new ArrayList<>();
+            for (Enumeration<String> e = super.getHeaderNames(); e.hasMoreElements(); ) {
+                String name = e.nextElement();
+                if (!USER_ID_HEADER.equalsIgnoreCase(name)) {
+                    names.add(name);
+                }
+            }
+            names.add(USER_ID_HEADER);
+            return Collections.enumeration(names);
+        }
+    }
+}
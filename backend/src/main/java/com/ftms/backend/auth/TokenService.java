@@ -0,0 +1,173 @@
+package com.ftms.backend.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Issues and verifies the signed session tokens (HS256 JWTs) that identify the
+ * user of an API request. A token carries the user id as subject, the role,
+ * and the time of the login it descends from; verifying one needs only the
+ * signing keys, which are decoded once at startup.
+ *
+ * Keys come from {@code ftms.auth.signing-keys} as {@code id:base64-secret}
+ * pairs. The first one signs new tokens and the others are only accepted, so a
+ * key can be rotated without logging everyone out. Without configured keys a
+ * random one is generated, and tokens do not survive a restart.
+ */
+@Component
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ROLE_CLAIM = "role";
+    private static final String AUTH_TIME_CLAIM = "auth_time";
+    private static final int MIN_KEY_BYTES = 32;
+
+    @Value("${ftms.auth.signing-keys:}")
+    private String signingKeys;
+
+    @Value("${ftms.auth.token-ttl-ms:900000}")
+    private long tokenTtlMs;
+
+    @Value("${ftms.auth.refresh-window-ms:43200000}")
+    private long refreshWindowMs;
+
+    private final Map<String, Key> keys = new LinkedHashMap<>();
+    private String signingKeyId;
+
+    /** What a verified token says about its user. */
+    public static class Session {
+        private final String userId;
+        private final String role;
+        private final long authTime;
+
+        Session(String userId, String role, long authTime) {
+            this.userId = userId;
+            this.role = role;
+            this.authTime = authTime;
+        }
+
+        public String getUserId() { return userId; }
+        public String getRole() { return role; }
+        /** Epoch millis of the password login this session started with. */
+        public long getAuthTime() { return authTime; }
+    }
+
+    @PostConstruct
+    void loadKeys() {
+        for (String entry : signingKeys.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("ftms.auth.signing-keys entries must look like id:base64-secret");
+            }
+            byte[] secret = Base64.getDecoder().decode(entry.substring(colon + 1));
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("Signing key " + entry.substring(0, colon) + " is shorter than 256 bits");
+            }
+            keys.put(entry.substring(0, colon), new SecretKeySpec(secret, SignatureAlgorithm.HS256.getJcaName()));
+        }
+        if (keys.isEmpty()) {
+            byte[] secret = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(secret);
+            keys.put("local", new SecretKeySpec(secret, SignatureAlgorithm.HS256.getJcaName()));
+            log.warn("No ftms.auth.signing-keys configured; using a random key, so sessions end when the server restarts");
+        }
+        signingKeyId = keys.keySet().iterator().next();
+    }
+
+    public String issue(String userId, String role, long authTime) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKeyId)
+                .setSubject(userId)
+                .claim(ROLE_CLAIM, role)
+                .claim(AUTH_TIME_CLAIM, authTime)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + tokenTtlMs))
+                .signWith(SignatureAlgorithm.HS256, keys.get(signingKeyId))
+                .compact();
+    }
+
+    /** Seconds a newly issued token stays valid. */
+    public long getTokenTtlSeconds() {
+        return tokenTtlMs / 1000;
+    }
+
+    /**
+     * Returns the session of a valid, unexpired token.
+     *
+     * @throws JwtException if the token is malformed, expired, or not signed with a known key
+     */
+    public Session verify(String token) {
+        return toSession(parse(token));
+    }
+
+    /**
+     * Returns the session of a token that may be refreshed: one with a valid
+     * signature, even if expired, whose login is less than
+     * {@code ftms.auth.refresh-window-ms} ago.
+     *
+     * @throws JwtException if the token cannot be refreshed
+     */
+    public Session verifyForRefresh(String token) {
+        Claims claims;
+        try {
+            claims = parse(token);
+        } catch (ExpiredJwtException e) {
+            // Thrown only after the signature was checked
+            claims = e.getClaims();
+        }
+        Session session = toSession(claims);
+        if (System.currentTimeMillis() - session.getAuthTime() > refreshWindowMs) {
+            throw new JwtException("Session is too old to refresh; log in again");
+        }
+        return session;
+    }
+
+    private Claims parse(String token) {
+        return Jwts.parser()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = header.getKeyId() != null ? keys.get(header.getKeyId()) : null;
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static Session toSession(Claims claims) {
+        Number authTime = claims.get(AUTH_TIME_CLAIM, Number.class);
+        if (claims.getSubject() == null || authTime == null) {
+            throw new JwtException("Token has no subject or login time");
+        }
+        return new Session(claims.getSubject(), claims.get(ROLE_CLAIM, String.class), authTime.longValue());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ftms.backend.config;
+
+import com.ftms.backend.routing.ReadYourWrites;
+import com.ftms.backend.routing.ReplicaAwareTransactionManager;
+import com.ftms.backend.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary/replica routing, enabled by setting {@code ftms.datasource.replica.urls}
+ * to a comma-separated list of replica JDBC URLs. The primary pool is built
+ * from the usual {@code spring.datasource.*} settings; replicas use the same
+ * credentials unless {@code ftms.datasource.replica.username/password} are set.
+ * Without replica URLs Spring Boot's single DataSource and transaction manager
+ * are used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ftms.datasource.replica.urls")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            ReadYourWrites readYourWrites,
+            @Value("${ftms.datasource.replica.urls}") String urls,
+            @Value("${ftms.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${ftms.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${ftms.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+            @Value("${ftms.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+            @Value("${ftms.datasource.replica.probe-interval-ms:1000}") long probeIntervalMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (url.trim().isEmpty()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, readYourWrites, lagQuery, maxLagSeconds, probeIntervalMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ReplicaRoutingDataSource routingDataSource,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new ReplicaAwareTransactionManager(routingDataSource);
+        transactionManager.setEntityManagerFactory(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+}
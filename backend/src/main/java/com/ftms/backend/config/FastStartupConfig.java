@@ -0,0 +1,24 @@
+package com.ftms.backend.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Beans kept eager when {@code spring.main.lazy-initialization} is on (the {@code fast}
+ * profile, see {@code application-fast.properties}). The connection pool and the
+ * persistence unit are needed by almost every request, so creating them lazily would
+ * only move their cost onto the first one, and an unreachable database should still
+ * fail the start rather than the first request.
+ */
+@Configuration
+public class FastStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerPersistence() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class);
+    }
+}
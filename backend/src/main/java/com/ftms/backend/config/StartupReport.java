@@ -0,0 +1,64 @@
+package com.ftms.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs how long startup took, measured from the start of the JVM process: until
+ * the application context was refreshed, until the application was ready (after
+ * the startup listeners such as the search index build), and until the first
+ * request was served. {@code scripts/startup-compare.sh} compares these across
+ * startup modes.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private final long processStart = processStartMillis();
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private volatile long refreshedMs = -1;
+
+    @EventListener
+    public void onRefreshed(ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getParent() == null && refreshedMs < 0) {
+            refreshedMs = sinceStart();
+        }
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long readyMs = sinceStart();
+        log.info("Startup: context refreshed after {} ms, ready after {} ms (JVM start until run(): {} ms, profiles: {})",
+                refreshedMs, readyMs, readyMs - event.getTimeTaken().toMillis(),
+                String.join(",", event.getApplicationContext().getEnvironment().getActiveProfiles()));
+    }
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestSeen.compareAndSet(false, true)) {
+            log.info("Startup: first request ({} {}, {}) served {} ms after process start",
+                    event.getMethod(), event.getRequestUrl(), event.getStatusCode(), sinceStart());
+        }
+    }
+
+    private long sinceStart() {
+        return System.currentTimeMillis() - processStart;
+    }
+
+    // The OS process start includes JVM boot; the RuntimeMXBean start time is a fallback.
+    private static long processStartMillis() {
+        return ProcessHandle.current().info().startInstant()
+                .map(Instant::toEpochMilli)
+                .orElseGet(() -> ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+}
@@ -0,0 +1,52 @@
+package com.ftms.backend.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs every request on its own virtual thread when {@code ftms.threads.virtual=true}.
+ *
+ * Tomcat's worker pool is replaced by a virtual-thread-per-task executor, and so is
+ * the executor for async MVC work such as the streamed audit export. Repository calls
+ * run on the request's thread, so a blocking JDBC call unmounts the virtual thread
+ * instead of holding a platform thread. Concurrency against the database is then
+ * bounded by the Hikari pool ({@code spring.datasource.hikari.maximum-pool-size})
+ * rather than by {@code server.tomcat.threads.max}.
+ *
+ * The code is compiled for Java 17; this mode needs a Java 21 runtime and refuses to
+ * start on anything older.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ftms.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    public VirtualThreadConfig() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException(
+                    "ftms.threads.virtual=true needs Java 21 or later, running on " + Runtime.version());
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            protocolHandler.setExecutor(new VirtualThreadExecutor("http-vt-"));
+            log.info("Serving requests on virtual threads");
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(new VirtualThreadExecutor("mvc-async-vt-")));
+    }
+}
@@ -1,16 +1,34 @@
 package com.ftms.backend.config;
 
+import com.ftms.backend.ratelimit.RateLimitInterceptor;
+import com.ftms.backend.routing.ReadYourWritesInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Autowired
+    private ReadYourWritesInterceptor readYourWritesInterceptor;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PATCH")
-                .allowedHeaders("User-Id", "Content-Type");
+                .allowedHeaders("Authorization", "User-Id", "Content-Type")
+                .exposedHeaders("Retry-After", "WWW-Authenticate");
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(readYourWritesInterceptor).addPathPatterns("/api/**");
     }
-}
\ No newline at end of file
+}
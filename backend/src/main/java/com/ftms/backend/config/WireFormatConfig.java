@@ -0,0 +1,35 @@
+package com.ftms.backend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Serves every JSON response body also as CBOR ({@code application/cbor}) or Smile
+ * ({@code application/x-jackson-smile}) when the client asks for it in {@code Accept}.
+ * Both mappers come from Boot's {@link Jackson2ObjectMapperBuilder}, so they apply
+ * the same {@code spring.jackson.*} settings as JSON, e.g. ISO-8601 dates.
+ *
+ * Smile is the more compact of the two for lists, since it refers back to property
+ * names and short string values already written instead of repeating them.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // Statuses, officers and course codes repeat across a list; refer back to earlier copies
+        SmileFactory factory = SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build());
+    }
+}
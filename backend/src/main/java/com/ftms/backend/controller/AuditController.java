@@ -1,21 +1,126 @@
 package com.ftms.backend.controller;
 
+import com.ftms.backend.audit.AuditExporter;
 import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.paging.CursorPage;
+import com.ftms.backend.paging.KeysetCursor;
+import com.ftms.backend.persistence.TimeOrderedUuid;
 import com.ftms.backend.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/audit")
 public class AuditController {
 
+    private static final int MAX_LIMIT = 1000;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditExporter auditExporter;
+
+    /**
+     * Without any parameters this returns the full history of the file. {@code from}
+     * (inclusive) and {@code to} (exclusive) bound it by time and {@code order}
+     * chooses the direction. Passing {@code limit} or {@code cursor} switches to a
+     * paginated response whose {@code nextCursor} continues in the same order.
+     */
     @GetMapping("/{fileId}")
-    public List<AuditLog> getAuditLogs(@PathVariable String fileId) {
-        return auditLogRepository.findByFileId(fileId);
+    public ResponseEntity<?> getAuditLogs(
+            @PathVariable String fileId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "order", defaultValue = "asc") String order,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            return ResponseEntity.badRequest().body("order must be asc or desc");
+        }
+        boolean descending = "desc".equalsIgnoreCase(order);
+
+        if (limit == null && cursor == null) {
+            if (from == null && to == null && !descending) {
+                return ResponseEntity.ok(auditLogRepository.findByFileId(fileId));
+            }
+            return ResponseEntity.ok(auditLogRepository.findByFileId(fileId, from, to, null, descending, Integer.MAX_VALUE));
+        }
+
+        int size = limit == null ? 50 : limit;
+        if (size < 1 || size > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_LIMIT);
+        }
+        KeysetCursor after;
+        try {
+            after = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        if (after != null && !TimeOrderedUuid.isValid(after.getId())) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        List<AuditLog> rows = auditLogRepository.findByFileId(fileId, from, to, after, descending, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<AuditLog> items = hasMore ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasMore) {
+            AuditLog last = items.get(size - 1);
+            next = new KeysetCursor(last.getTimestamp(), last.getLogId()).encode();
+        }
+        return ResponseEntity.ok(new CursorPage<>(items, next));
+    }
+
+    /**
+     * Streams every audit entry matching the filters as NDJSON (default) or CSV,
+     * gzip-compressed when the client accepts it.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "userId", required = false) String userId,
+            @RequestParam(value = "action", required = false) String action,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        AuditExporter.Format exportFormat;
+        MediaType contentType;
+        if ("csv".equalsIgnoreCase(format)) {
+            exportFormat = AuditExporter.Format.CSV;
+            contentType = new MediaType("text", "csv");
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            exportFormat = AuditExporter.Format.NDJSON;
+            contentType = MediaType.APPLICATION_NDJSON;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            auditExporter.export(userId, action, from, to, exportFormat, target);
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            target.flush();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"audit-export." + (exportFormat == AuditExporter.Format.CSV ? "csv" : "ndjson") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
-}
\ No newline at end of file
+}
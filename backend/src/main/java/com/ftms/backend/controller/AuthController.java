@@ -1,31 +1,89 @@
 package com.ftms.backend.controller;
 
+import com.ftms.backend.auth.TokenAuthenticationFilter;
+import com.ftms.backend.auth.TokenService;
+import com.ftms.backend.dto.LoginResponse;
 import com.ftms.backend.entity.User;
+import com.ftms.backend.event.UserChangedEvent;
 import com.ftms.backend.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final String ADMIN_ROLE = "admin";
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PostMapping("/login")
-    public ResponseEntity<User> login(@RequestBody User loginRequest) {
+    public ResponseEntity<LoginResponse> login(@RequestBody User loginRequest) {
         Optional<User> optionalUser = userRepository.findByUsername(loginRequest.getUsername());
         if (optionalUser.isPresent() && optionalUser.get().getPassword().equals(loginRequest.getPassword())) {
-            return ResponseEntity.ok(optionalUser.get());
+            User user = optionalUser.get();
+            String token = tokenService.issue(user.getUserId(), user.getRole(), System.currentTimeMillis());
+            return ResponseEntity.ok(new LoginResponse(token, tokenService.getTokenTtlSeconds(), user));
         }
         return ResponseEntity.status(401).build();
     }
 
+    /**
+     * Exchanges a token, also an expired one, for a fresh one without the
+     * password, as long as its login is within {@code ftms.auth.refresh-window-ms}.
+     * The user is looked up again, so a deleted user cannot refresh and a
+     * changed role takes effect.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(HttpServletRequest request) {
+        String token = TokenAuthenticationFilter.bearerToken(request);
+        if (token == null) {
+            return ResponseEntity.status(401).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer").build();
+        }
+        TokenService.Session session;
+        try {
+            session = tokenService.verifyForRefresh(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(401).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"").build();
+        }
+        Optional<User> optionalUser = userRepository.findById(session.getUserId());
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(401).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"").build();
+        }
+        User user = optionalUser.get();
+        String refreshed = tokenService.issue(user.getUserId(), user.getRole(), session.getAuthTime());
+        return ResponseEntity.ok(new LoginResponse(refreshed, tokenService.getTokenTtlSeconds(), user));
+    }
+
+    /**
+     * Creates a user. Only an admin's token may do this, except while there
+     * are no users at all, so a new installation can register its first admin.
+     */
     @PostMapping("/register")
-    public User register(@RequestBody User user) {
-        return userRepository.save(user);
+    public ResponseEntity<User> register(@RequestBody User user, HttpServletRequest request) {
+        Object role = request.getAttribute(TokenAuthenticationFilter.ROLE_ATTRIBUTE);
+        if (role == null && userRepository.count() > 0) {
+            return ResponseEntity.status(401).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer").build();
+        }
+        if (role != null && !ADMIN_ROLE.equals(role)) {
+            return ResponseEntity.status(403).build();
+        }
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser));
+        return ResponseEntity.ok(savedUser);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.ftms.backend.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Second-level cache statistics, used to size the regions configured in
+ * {@code application.conf}. Hit, miss and put counts come from Hibernate;
+ * entry count, weight and evictions come from the underlying Caffeine caches.
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        RegionFactory regionFactory = sessionFactory.getCache().getRegionFactory();
+
+        // The region name list from Hibernate leaves out the query results region.
+        Set<String> names = new LinkedHashSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()));
+        names.add(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            if (region != null) {
+                long hits = region.getHitCount();
+                long misses = region.getMissCount();
+                entry.put("hits", hits);
+                entry.put("misses", misses);
+                entry.put("puts", region.getPutCount());
+                entry.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            }
+            entry.putAll(nativeStats(regionFactory, name));
+            regions.put(name, entry);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        body.put("secondLevelHits", statistics.getSecondLevelCacheHitCount());
+        body.put("secondLevelMisses", statistics.getSecondLevelCacheMissCount());
+        body.put("secondLevelPuts", statistics.getSecondLevelCachePutCount());
+        body.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        body.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        body.put("regions", regions);
+        return ResponseEntity.ok(body);
+    }
+
+    private static Map<String, Object> nativeStats(RegionFactory regionFactory, String name) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (!(regionFactory instanceof JCacheRegionFactory)) {
+            return stats;
+        }
+        javax.cache.Cache<Object, Object> cache = ((JCacheRegionFactory) regionFactory).getCacheManager().getCache(name);
+        if (cache == null) {
+            return stats;
+        }
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> caffeine = cache.unwrap(Cache.class);
+        stats.put("entries", caffeine.estimatedSize());
+        stats.put("evictions", caffeine.stats().evictionCount());
+        caffeine.policy().eviction().ifPresent((Policy.Eviction<Object, Object> eviction) -> {
+            eviction.weightedSize().ifPresent(weight -> stats.put("weight", weight));
+            stats.put("maximum", eviction.getMaximum());
+        });
+        return stats;
+    }
+}
@@ -1,71 +1,443 @@
 package com.ftms.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ftms.backend.dto.BulkItemResult;
+import com.ftms.backend.dto.BulkUpdateRequest;
+import com.ftms.backend.dto.FileLookupResult;
+import com.ftms.backend.dto.SparseFieldset;
 import com.ftms.backend.entity.File;
+import com.ftms.backend.entity.FileEvent;
+import com.ftms.backend.event.FileChangedEvent;
+import com.ftms.backend.history.FileHistoryService;
+import com.ftms.backend.paging.CursorPage;
+import com.ftms.backend.paging.KeysetCursor;
+import com.ftms.backend.persistence.TimeOrderedUuid;
+import com.ftms.backend.ratelimit.EndpointClass;
+import com.ftms.backend.ratelimit.RateLimited;
 import com.ftms.backend.repository.FileRepository;
+import com.ftms.backend.search.FileSearchIndex;
+import com.ftms.backend.search.SearchCoalescer;
+import com.ftms.backend.search.SearchKey;
+import com.ftms.backend.search.SearchResultCache;
+import com.ftms.backend.service.FileBulkUpdateService;
+import com.ftms.backend.service.FileRegistrationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/files")
 public class FileController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_LOOKUP_IDS = 10000;
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final int MAX_BULK_UPDATE_IDS = 10000;
+
+    // Properties a search client may select with fields=
+    static final SparseFieldset<File> FILE_FIELDS = new SparseFieldset<File>()
+            .field("id", File::getId)
+            .field("title", File::getTitle)
+            .field("status", File::getStatus)
+            .field("currentOfficer", File::getCurrentOfficer)
+            .field("courseCode", File::getCourseCode)
+            .field("examSession", File::getExamSession)
+            .field("createdBy", File::getCreatedBy)
+            .field("timestamp", File::getTimestamp)
+            .field("version", File::getVersion);
+
     @Autowired
     private FileRepository fileRepository;
 
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private SearchCoalescer searchCoalescer;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FileRegistrationService fileRegistrationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FileHistoryService fileHistoryService;
+
+    @Autowired
+    private FileBulkUpdateService fileBulkUpdateService;
+
     @GetMapping("/{id}")
-    public ResponseEntity<File> getFile(@PathVariable String id, @RequestHeader("User-Id") String userId) {
+    public ResponseEntity<File> getFile(
+            @PathVariable String id,
+            @RequestHeader("User-Id") String userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!TimeOrderedUuid.isValid(id)) {
+            return ResponseEntity.notFound().build();
+        }
         return fileRepository.findById(id)
-                .map(file -> ResponseEntity.ok(file))
+                .map(file -> {
+                    String etag = etag(file);
+                    if (ifNoneMatch != null && etagMatches(ifNoneMatch, etag, true)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<File>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(file);
+                })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * Resolves a comma-separated list of ids with one IN query. The response has one
+     * entry per requested id, in request order, marked FOUND or NOT_FOUND.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getFiles(
+            @RequestParam String ids,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader("User-Id") String userId) {
+        List<String> idList = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            if (!id.trim().isEmpty()) {
+                idList.add(id.trim());
+            }
+        }
+        return lookup(idList, fields);
+    }
+
+    /** Body form of {@link #getFiles} for id sets too large for a URL: a JSON array of ids. */
+    @PostMapping("/lookup")
+    @RateLimited(EndpointClass.READ)
+    public ResponseEntity<?> lookupFiles(
+            @RequestBody List<String> ids,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader("User-Id") String userId) {
+        return lookup(ids, fields);
+    }
+
+    private ResponseEntity<?> lookup(List<String> ids, String fields) {
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body("ids must not be empty");
+        }
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_LOOKUP_IDS + " ids can be looked up at once");
+        }
+        List<String> fieldList;
+        try {
+            fieldList = FILE_FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        // Malformed ids cannot exist, so they are reported missing without being queried.
+        // Ids are compared in the lower-case form the entity carries.
+        List<String> queried = new ArrayList<>(new LinkedHashSet<>(ids.stream()
+                .filter(TimeOrderedUuid::isValid)
+                .map(id -> id.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList())));
+        Map<String, File> found = new HashMap<>(queried.size() * 2);
+        for (int from = 0; from < queried.size(); from += LOOKUP_CHUNK_SIZE) {
+            for (File file : fileRepository.findAllById(queried.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, queried.size())))) {
+                found.put(file.getId(), file);
+            }
+        }
+
+        List<FileLookupResult> results = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            File file = id == null ? null : found.get(id.toLowerCase(Locale.ROOT));
+            if (file == null) {
+                results.add(new FileLookupResult(id, FileLookupResult.NOT_FOUND, null));
+            } else {
+                results.add(new FileLookupResult(id, FileLookupResult.FOUND,
+                        fieldList == null ? file : FILE_FIELDS.project(file, fieldList)));
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
     @PostMapping("/register")
     public ResponseEntity<File> createFile(@RequestBody File file, @RequestHeader("User-Id") String userId) {
-        if (file.getTitle() == null || file.getTitle().trim().isEmpty() ||
-                file.getStatus() == null || file.getStatus().trim().isEmpty() ||
-                file.getCurrentOfficer() == null || file.getCurrentOfficer().trim().isEmpty()) {
-
+        if (FileRegistrationService.validate(file) != null) {
             return ResponseEntity.badRequest().body(null);
         }
+        file.setId(null);
+        file.setVersion(0); // a new file starts at version 0, whatever the client sent
         file.setCreatedBy(userId);
         file.setTimestamp(LocalDateTime.now());
-        File savedFile = fileRepository.save(file);
-        return ResponseEntity.ok(savedFile);
+        File savedFile = fileHistoryService.register(file, userId);
+        eventPublisher.publishEvent(new FileChangedEvent(null, savedFile, userId));
+        return ResponseEntity.ok().eTag(etag(savedFile)).body(savedFile);
+    }
+
+    @PostMapping(value = "/register/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> createFiles(@RequestBody List<File> files, @RequestHeader("User-Id") String userId) {
+        return ResponseEntity.ok(fileRegistrationService.registerAll(files, 0, userId));
     }
 
+    // One File per line; lines are registered chunk by chunk as they are read.
+    @PostMapping(value = "/register/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> createFilesFromStream(HttpServletRequest request, @RequestHeader("User-Id") String userId) throws IOException {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<File> chunk = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                File file;
+                try {
+                    file = objectMapper.readValue(line, File.class);
+                } catch (IOException e) {
+                    results.addAll(fileRegistrationService.registerAll(chunk, results.size(), userId));
+                    chunk.clear();
+                    results.add(new BulkItemResult(results.size(), null, BulkItemResult.INVALID, "Malformed JSON"));
+                    continue;
+                }
+                chunk.add(file);
+                if (chunk.size() == fileRegistrationService.getChunkSize()) {
+                    results.addAll(fileRegistrationService.registerAll(chunk, results.size(), userId));
+                    chunk.clear();
+                }
+            }
+        }
+        results.addAll(fileRegistrationService.registerAll(chunk, results.size(), userId));
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Partial update. When {@code If-Match} is sent, the update is only applied if it
+     * still matches the file's current ETag; otherwise, or if another update commits
+     * first, the response is 412 Precondition Failed. The change is recorded as
+     * {@link FileEvent}s; an update that changes nothing leaves the file as it is.
+     */
     @PatchMapping("/{id}")
     public ResponseEntity<File> updateFile(
             @PathVariable String id,
             @RequestBody File updates,
+            @RequestHeader("User-Id") String userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!TimeOrderedUuid.isValid(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return fileRepository.findById(id)
+                    .map(file -> {
+                        if (ifMatch != null && !etagMatches(ifMatch, etag(file), false)) {
+                            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag(file)).<File>build();
+                        }
+                        File previous = snapshot(file);
+                        File updatedFile = fileHistoryService.update(file, updates, userId);
+                        if (updatedFile.getVersion() != previous.getVersion()) {
+                            eventPublisher.publishEvent(new FileChangedEvent(previous, updatedFile, userId));
+                        }
+                        return ResponseEntity.ok().eTag(etag(updatedFile)).body(updatedFile);
+                    })
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    /**
+     * Applies the same partial update as {@code PATCH /{id}} to every file in {@code ids}
+     * and returns one result per id in request order: UPDATED, UNCHANGED, NOT_FOUND or
+     * FAILED. Files are updated in chunked transactions; a failure only affects its own
+     * items.
+     */
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> updateFiles(@RequestBody BulkUpdateRequest request, @RequestHeader("User-Id") String userId) {
+        if (request.getIds() == null || request.getIds().isEmpty()) {
+            return ResponseEntity.badRequest().body("ids must not be empty");
+        }
+        if (request.getIds().size() > MAX_BULK_UPDATE_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BULK_UPDATE_IDS + " files can be updated at once");
+        }
+        if (request.getUpdates() == null) {
+            return ResponseEntity.badRequest().body("updates is required");
+        }
+        return ResponseEntity.ok(fileBulkUpdateService.updateAll(request.getIds(), request.getUpdates(), userId));
+    }
+
+    /** The file's change history, oldest first. */
+    @GetMapping("/{id}/events")
+    public ResponseEntity<List<FileEvent>> getFileEvents(@PathVariable String id, @RequestHeader("User-Id") String userId) {
+        if (!TimeOrderedUuid.isValid(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        List<FileEvent> events = fileHistoryService.getEvents(id);
+        return events.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(events);
+    }
+
+    /** The file as it was at time {@code at}; 404 if it did not exist yet. */
+    @GetMapping("/{id}/as-of")
+    public ResponseEntity<File> getFileAsOf(
+            @PathVariable String id,
+            @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
             @RequestHeader("User-Id") String userId) {
-        return fileRepository.findById(id)
-                .map(file -> {
-                    if (updates.getTitle() != null) file.setTitle(updates.getTitle());
-                    if (updates.getStatus() != null) file.setStatus(updates.getStatus());
-                    if (updates.getCurrentOfficer() != null) file.setCurrentOfficer(updates.getCurrentOfficer());
-                    if (updates.getCourseCode() != null) file.setCourseCode(updates.getCourseCode());
-                    if (updates.getExamSession() != null) file.setExamSession(updates.getExamSession());
-                    file.setTimestamp(LocalDateTime.now());
-                    File updatedFile = fileRepository.save(file);
-                    return ResponseEntity.ok(updatedFile);
-                })
+        if (!TimeOrderedUuid.isValid(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return fileHistoryService.stateAsOf(id, at)
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /** Recomputes every file row from the event log; 409 while a rebuild is already running. */
+    @PostMapping("/projections/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildProjections(@RequestHeader("User-Id") String userId) {
+        return fileHistoryService.rebuildProjections()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Searches title, status, course code and exam session. Paged when {@code pageSize}
+     * or {@code cursor} is given; {@code fields} (e.g. {@code id,title,status}) limits
+     * each returned item to those properties. Results are cached (see
+     * {@link SearchResultCache}) and identical concurrent searches share one execution
+     * (see {@link SearchCoalescer}); both key on the trimmed, lower-cased query.
+     */
     @GetMapping("/search")
-    public ResponseEntity<?> searchFiles(@RequestParam String query, @RequestHeader("User-Id") String userId) {
+    @RateLimited(EndpointClass.SEARCH)
+    public ResponseEntity<?> searchFiles(
+            @RequestParam String query,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader("User-Id") String userId) {
         try {
             if (query == null || query.trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("Search query cannot be empty");
             }
-            List<File> files = fileRepository.findByTitleContainingIgnoreCaseOrStatusContainingIgnoreCase(query, query);
-            return ResponseEntity.ok(files);
+            List<String> fieldList;
+            try {
+                fieldList = FILE_FIELDS.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+            SearchKey key = new SearchKey(query, pageSize, cursor, fieldList, accept);
+            return searchResultCache.execute(key, () -> search(key.getQuery(), pageSize, cursor, fieldList));
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Internal server error");
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cache", searchResultCache.stats());
+        stats.put("coalescing", searchCoalescer.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    private ResponseEntity<?> search(String query, Integer pageSize, String cursor, List<String> fieldList) {
+        if (pageSize != null || cursor != null) {
+            return searchPage(query, pageSize, cursor, fieldList);
+        }
+        if (fileSearchIndex.isReady()) {
+            return fieldList == null
+                    ? ResponseEntity.ok(fileSearchIndex.search(query))
+                    : ResponseEntity.ok(fileSearchIndex.search(query, file -> FILE_FIELDS.project(file, fieldList)));
+        }
+        List<File> files = fileRepository.search(query);
+        return fieldList == null
+                ? ResponseEntity.ok(files)
+                : ResponseEntity.ok(FILE_FIELDS.project(files, fieldList));
+    }
+
+    private ResponseEntity<?> searchPage(String query, Integer pageSize, String cursor, List<String> fields) {
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        KeysetCursor after;
+        try {
+            after = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        if (after != null && !TimeOrderedUuid.isValid(after.getId())) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        if (fileSearchIndex.isReady()) {
+            return fields == null
+                    ? ResponseEntity.ok(fileSearchIndex.searchPage(query, after, size))
+                    : ResponseEntity.ok(fileSearchIndex.searchPage(query, after, size, file -> FILE_FIELDS.project(file, fields)));
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<File> rows;
+        if (after == null) {
+            rows = fileRepository.searchFirstPage(query, limit);
+        } else if (after.getTimestamp() == null) {
+            rows = fileRepository.searchAfterNullTimestamp(query, after.getId(), limit);
+        } else {
+            rows = fileRepository.searchAfter(query, after.getTimestamp(), after.getId(), limit);
+        }
+        boolean hasMore = rows.size() > size;
+        List<File> items = hasMore ? rows.subList(0, size) : rows;
+        String next = hasMore ? FileSearchIndex.keyOf(items.get(size - 1)).encode() : null;
+        if (fields != null) {
+            return ResponseEntity.ok(new CursorPage<>(FILE_FIELDS.project(items, fields), next));
+        }
+        return ResponseEntity.ok(new CursorPage<>(items, next));
+    }
+
+    private static File snapshot(File file) {
+        File copy = new File(file.getId(), file.getTitle(), file.getStatus(), file.getCurrentOfficer(),
+                file.getCourseCode(), file.getExamSession(), file.getCreatedBy(), file.getTimestamp());
+        copy.setVersion(file.getVersion());
+        return copy;
+    }
+
+    private static String etag(File file) {
+        return "\"" + file.getVersion() + "\"";
+    }
+
+    // True if the header lists this ETag (or is "*"). If-None-Match compares weakly, ignoring W/;
+    // If-Match compares strongly (RFC 7232), so a weak validator there never matches.
+    private static boolean etagMatches(String header, String etag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
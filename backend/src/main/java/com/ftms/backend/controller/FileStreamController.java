@@ -0,0 +1,46 @@
+package com.ftms.backend.controller;
+
+import com.ftms.backend.feed.FileChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * Server-Sent-Events feed of file changes (see {@link FileChangeFeed}). Events are
+ * {@code created} and {@code updated}, carrying the file as JSON, and {@code resync},
+ * which tells the client it missed events and should reload.
+ */
+@RestController
+@RequestMapping("/api/files/stream")
+public class FileStreamController {
+
+    @Autowired
+    private FileChangeFeed fileChangeFeed;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(value = "officer", required = false) String officer,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader("User-Id") String userId) {
+        SseEmitter emitter = fileChangeFeed.subscribe(blankToNull(officer), blankToNull(status), lastEventId != null);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(fileChangeFeed.stats());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
@@ -0,0 +1,22 @@
+package com.ftms.backend.controller;
+
+import com.ftms.backend.ratelimit.RateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/** Per-user throttling counters from {@link RateLimiter}. */
+@RestController
+@RequestMapping("/api/ratelimit")
+public class RateLimitController {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats(@RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return ResponseEntity.ok(rateLimiter.stats(limit));
+    }
+}
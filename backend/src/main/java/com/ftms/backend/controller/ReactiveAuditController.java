@@ -0,0 +1,42 @@
+package com.ftms.backend.controller;
+
+import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.repository.ReactiveAuditLogReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+/**
+ * Streaming variant of {@code GET /api/audit/{fileId}}, selected with
+ * {@code Accept: application/x-ndjson}. Takes the same {@code from}, {@code to}
+ * and {@code order} filters and writes every matching entry as it is read over
+ * R2DBC, one JSON object per line; rows are only fetched as fast as the client
+ * consumes them.
+ */
+@RestController
+@RequestMapping("/api/audit")
+public class ReactiveAuditController {
+
+    @Autowired
+    private ReactiveAuditLogReader reactiveAuditLogReader;
+
+    @GetMapping(value = "/{fileId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<AuditLog>> streamAuditLogs(
+            @PathVariable String fileId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "order", defaultValue = "asc") String order) {
+        if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean descending = "desc".equalsIgnoreCase(order);
+        return ResponseEntity.ok(reactiveAuditLogReader.findByFileId(fileId, from, to, descending)
+                .publishOn(Schedulers.boundedElastic(), ReactiveFileSearchController.WRITE_PREFETCH));
+    }
+}
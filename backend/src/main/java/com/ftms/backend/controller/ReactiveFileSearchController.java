@@ -0,0 +1,62 @@
+package com.ftms.backend.controller;
+
+import com.ftms.backend.entity.File;
+import com.ftms.backend.ratelimit.EndpointClass;
+import com.ftms.backend.ratelimit.RateLimited;
+import com.ftms.backend.repository.ReactiveFileReader;
+import com.ftms.backend.search.FileSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streaming variant of {@code GET /api/files/search}, selected with
+ * {@code Accept: application/x-ndjson}. Matches are written one JSON object per
+ * line as they are produced, without paging: from the in-memory index when it is
+ * ready, otherwise straight from an R2DBC query. No thread is held while the
+ * request waits for rows.
+ */
+@RestController
+@RequestMapping("/api/files")
+public class ReactiveFileSearchController {
+
+    // Writes to the servlet response block, so they are kept off the driver's event loop.
+    static final int WRITE_PREFETCH = 256;
+
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private ReactiveFileReader reactiveFileReader;
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @RateLimited(EndpointClass.SEARCH)
+    public ResponseEntity<Flux<?>> streamSearch(
+            @RequestParam String query,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader("User-Id") String userId) {
+        if (query.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> fieldList;
+        try {
+            fieldList = FileController.FILE_FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Function<File, Object> mapper = fieldList == null
+                ? file -> file
+                : file -> FileController.FILE_FIELDS.project(file, fieldList);
+
+        Flux<File> files = fileSearchIndex.isReady()
+                ? Flux.defer(() -> Flux.fromIterable(fileSearchIndex.search(query)))
+                : reactiveFileReader.search(query);
+        return ResponseEntity.ok(files.map(mapper).publishOn(Schedulers.boundedElastic(), WRITE_PREFETCH));
+    }
+}
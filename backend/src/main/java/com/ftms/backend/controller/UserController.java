@@ -1,5 +1,8 @@
 package com.ftms.backend.controller;
 
+import com.ftms.backend.directory.UserDirectory;
+import com.ftms.backend.dto.DirectoryDelta;
+import com.ftms.backend.dto.SparseFieldset;
 import com.ftms.backend.entity.User;
 import com.ftms.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,18 +16,52 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
 
+    // Selectable with fields=; the password is deliberately not one of them.
+    private static final SparseFieldset<User> USER_FIELDS = new SparseFieldset<User>()
+            .field("userId", User::getUserId)
+            .field("username", User::getUsername)
+            .field("role", User::getRole);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
+    /**
+     * Lists users (or only those with one of {@code roles}) as id, username and role.
+     * {@code fields} narrows the columns selected and returned further.
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getUsers(
+    public ResponseEntity<?> getUsers(
             @RequestParam(value = "roles", required = false) String roles,
+            @RequestParam(value = "fields", required = false) String fields,
             @RequestHeader("User-Id") String userId) {
-        if (roles == null) {
-            return ResponseEntity.ok(userRepository.findAll());
+        List<String> fieldList;
+        try {
+            fieldList = USER_FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        List<String> roleList = roles == null ? null : Arrays.asList(roles.split(","));
+        if (fieldList != null) {
+            return ResponseEntity.ok(userRepository.findFields(fieldList, roleList));
         }
-        List<String> roleList = Arrays.asList(roles.split(","));
-        List<User> users = userRepository.findByRoleIn(roleList);
-        return ResponseEntity.ok(users);
+        if (roleList == null) {
+            return ResponseEntity.ok(userRepository.findAllProjectedBy());
+        }
+        return ResponseEntity.ok(userRepository.findProjectedByRoleIn(roleList));
+    }
+
+    /**
+     * The user directory (id, username and role) with a version stamp. With the
+     * {@code version} of an earlier answer as {@code since}, only the users added,
+     * changed or removed after it are returned; see {@link DirectoryDelta}.
+     */
+    @GetMapping("/directory")
+    public ResponseEntity<DirectoryDelta> getDirectory(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestHeader("User-Id") String userId) {
+        return ResponseEntity.ok(userDirectory.changesSince(since));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,227 @@
+package com.ftms.backend.directory;
+
+import com.ftms.backend.dto.DirectoryDelta;
+import com.ftms.backend.dto.DirectoryEntry;
+import com.ftms.backend.dto.UserSummary;
+import com.ftms.backend.event.UserChangedEvent;
+import com.ftms.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versioned in-memory copy of the user directory (id, username and role), so
+ * clients can keep their own copy and only fetch what changed.
+ *
+ * Every change gets the next number of a counter; an entry remembers the number
+ * of its last change and a removed user leaves a marker with the number of its
+ * removal. A version stamp is {@code epoch:counter}, where the epoch is chosen
+ * at startup: a stamp from before a restart, or from another instance, does not
+ * match and gets the full directory instead of a delta. Deltas are also full once
+ * more than {@code ftms.users.directory.max-removed} removal markers have been
+ * dropped since the client's version.
+ *
+ * Users saved here arrive as {@link UserChangedEvent}s. Every
+ * {@code ftms.users.directory.reload-ms} the directory is also compared with the
+ * primary database, which picks up users changed on other instances or outside
+ * the application.
+ */
+@Component
+public class UserDirectory implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectory.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${ftms.users.directory.reload-ms:60000}")
+    private long reloadMs;
+
+    @Value("${ftms.users.directory.max-removed:1000}")
+    private int maxRemoved;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, Versioned> entries = new HashMap<>();
+    // Ordered by removal, so the oldest markers are dropped first
+    private final LinkedHashMap<String, Long> removedAt = new LinkedHashMap<>();
+    private long counter;
+    // Deltas since versions before this one would miss dropped removal markers
+    private long horizon;
+    private boolean loaded;
+    private ScheduledExecutorService reloader;
+
+    private static final class Versioned {
+        final DirectoryEntry entry;
+        final long version;
+
+        Versioned(DirectoryEntry entry, long version) {
+            this.entry = entry;
+            this.version = version;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "user-directory-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (reloadMs > 0) {
+            reloader.scheduleWithFixedDelay(this::reloadQuietly, reloadMs, reloadMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        reloader.shutdownNow();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUser() == null || event.getUser().getUserId() == null) {
+            return;
+        }
+        synchronized (this) {
+            put(new DirectoryEntry(event.getUser().getUserId(), event.getUser().getUsername(), event.getUser().getRole()));
+        }
+    }
+
+    /**
+     * Reads all users from the primary and brings the directory in line with
+     * them. Entries that changed through an event while the query ran are left
+     * alone, since the query may have started before that change committed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        long started;
+        synchronized (this) {
+            started = counter;
+        }
+        // A read-write transaction, so the query goes to the primary rather than a lagging replica
+        List<UserSummary> users = transactionTemplate.execute(status -> userRepository.findSummariesBy());
+        synchronized (this) {
+            Set<String> seen = new HashSet<>();
+            for (UserSummary user : users) {
+                seen.add(user.getUserId());
+                Versioned current = entries.get(user.getUserId());
+                if (current == null || current.version <= started) {
+                    put(DirectoryEntry.of(user));
+                }
+            }
+            for (String userId : new ArrayList<>(entries.keySet())) {
+                if (!seen.contains(userId) && entries.get(userId).version <= started) {
+                    remove(userId);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("User directory reload failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the changes since {@code since}, a version stamp from an earlier
+     * answer, or the whole directory if {@code since} is null or cannot be
+     * answered with a delta.
+     */
+    public DirectoryDelta changesSince(String since) {
+        if (!isLoaded()) {
+            reload();
+        }
+        synchronized (this) {
+            long sinceCounter = parse(since);
+            String version = epoch + ":" + counter;
+            if (sinceCounter < 0) {
+                List<DirectoryEntry> users = new ArrayList<>(entries.size());
+                for (Versioned versioned : entries.values()) {
+                    users.add(versioned.entry);
+                }
+                return new DirectoryDelta(version, true, users, new ArrayList<>());
+            }
+            List<DirectoryEntry> changed = new ArrayList<>();
+            for (Versioned versioned : entries.values()) {
+                if (versioned.version > sinceCounter) {
+                    changed.add(versioned.entry);
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            for (Map.Entry<String, Long> marker : removedAt.entrySet()) {
+                if (marker.getValue() > sinceCounter) {
+                    removed.add(marker.getKey());
+                }
+            }
+            return new DirectoryDelta(version, false, changed, removed);
+        }
+    }
+
+    private synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    // The counter part of a stamp from this epoch that a delta can answer, otherwise -1
+    private long parse(String since) {
+        if (since == null) {
+            return -1;
+        }
+        int colon = since.lastIndexOf(':');
+        if (colon < 0 || !since.substring(0, colon).equals(epoch)) {
+            return -1;
+        }
+        try {
+            long value = Long.parseLong(since.substring(colon + 1));
+            return value < horizon || value > counter ? -1 : value;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void put(DirectoryEntry entry) {
+        Versioned current = entries.get(entry.getUserId());
+        if (current != null && current.entry.equals(entry)) {
+            return;
+        }
+        entries.put(entry.getUserId(), new Versioned(entry, ++counter));
+        removedAt.remove(entry.getUserId());
+    }
+
+    private void remove(String userId) {
+        if (entries.remove(userId) == null) {
+            return;
+        }
+        removedAt.put(userId, ++counter);
+        Iterator<Long> oldest = removedAt.values().iterator();
+        while (removedAt.size() > maxRemoved && oldest.hasNext()) {
+            horizon = oldest.next();
+            oldest.remove();
+        }
+    }
+}
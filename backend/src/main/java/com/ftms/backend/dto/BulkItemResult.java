@@ -0,0 +1,31 @@
+package com.ftms.backend.dto;
+
+/**
+ * Outcome of one item in a bulk request. {@code index} is the item's position
+ * in the request and {@code error} is only set when the item was not applied.
+ */
+public class BulkItemResult {
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String INVALID = "INVALID";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String FAILED = "FAILED";
+
+    private final int index;
+    private final String id;
+    private final String status;
+    private final String error;
+
+    public BulkItemResult(int index, String id, String status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public String getId() { return id; }
+    public String getStatus() { return status; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,16 @@
+package com.ftms.backend.dto;
+
+import com.ftms.backend.entity.File;
+
+import java.util.List;
+
+/** Body of a bulk PATCH: the same partial {@code updates} applied to every file in {@code ids}. */
+public class BulkUpdateRequest {
+    private List<String> ids;
+    private File updates;
+
+    public List<String> getIds() { return ids; }
+    public void setIds(List<String> ids) { this.ids = ids; }
+    public File getUpdates() { return updates; }
+    public void setUpdates(File updates) { this.updates = updates; }
+}
@@ -0,0 +1,29 @@
+package com.ftms.backend.dto;
+
+import java.util.List;
+
+/**
+ * Answer of {@code GET /api/users/directory}. With {@code full} set, {@code users}
+ * is the whole directory and replaces whatever the client had; otherwise it holds
+ * only the users added or changed since the client's version, and {@code removed}
+ * the ids of users that are gone. {@code version} is what the client sends as
+ * {@code since} next time.
+ */
+public class DirectoryDelta {
+    private final String version;
+    private final boolean full;
+    private final List<DirectoryEntry> users;
+    private final List<String> removed;
+
+    public DirectoryDelta(String version, boolean full, List<DirectoryEntry> users, List<String> removed) {
+        this.version = version;
+        this.full = full;
+        this.users = users;
+        this.removed = removed;
+    }
+
+    public String getVersion() { return version; }
+    public boolean isFull() { return full; }
+    public List<DirectoryEntry> getUsers() { return users; }
+    public List<String> getRemoved() { return removed; }
+}
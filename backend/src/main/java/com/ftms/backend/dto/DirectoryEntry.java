@@ -0,0 +1,44 @@
+package com.ftms.backend.dto;
+
+import java.util.Objects;
+
+/**
+ * One user as listed by {@link com.ftms.backend.directory.UserDirectory}.
+ */
+public class DirectoryEntry implements UserSummary {
+    private final String userId;
+    private final String username;
+    private final String role;
+
+    public DirectoryEntry(String userId, String username, String role) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+    }
+
+    public static DirectoryEntry of(UserSummary user) {
+        return new DirectoryEntry(user.getUserId(), user.getUsername(), user.getRole());
+    }
+
+    @Override
+    public String getUserId() { return userId; }
+    @Override
+    public String getUsername() { return username; }
+    @Override
+    public String getRole() { return role; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DirectoryEntry)) return false;
+        DirectoryEntry that = (DirectoryEntry) o;
+        return Objects.equals(userId, that.userId)
+                && Objects.equals(username, that.username)
+                && Objects.equals(role, that.role);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, username, role);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ftms.backend.dto;
+
+/**
+ * One entry of a multi-get response, at the position of the requested id.
+ * {@code file} is only set when {@code status} is FOUND; it is the file or, with
+ * {@code fields=}, its selected properties.
+ */
+public class FileLookupResult {
+    public static final String FOUND = "FOUND";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private final String id;
+    private final String status;
+    private final Object file;
+
+    public FileLookupResult(String id, String status, Object file) {
+        this.id = id;
+        this.status = status;
+        this.file = file;
+    }
+
+    public String getId() { return id; }
+    public String getStatus() { return status; }
+    public Object getFile() { return file; }
+}
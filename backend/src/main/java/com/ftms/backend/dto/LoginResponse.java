@@ -0,0 +1,32 @@
+package com.ftms.backend.dto;
+
+import com.ftms.backend.entity.User;
+
+/**
+ * Answer to a login or token refresh: the bearer token to send with every API
+ * request, the seconds it stays valid, and the user it belongs to. The password
+ * is never included.
+ */
+public class LoginResponse {
+    private final String token;
+    private final String tokenType = "Bearer";
+    private final long expiresIn;
+    private final String userId;
+    private final String username;
+    private final String role;
+
+    public LoginResponse(String token, long expiresIn, User user) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+        this.userId = user.getUserId();
+        this.username = user.getUsername();
+        this.role = user.getRole();
+    }
+
+    public String getToken() { return token; }
+    public String getTokenType() { return tokenType; }
+    public long getExpiresIn() { return expiresIn; }
+    public String getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getRole() { return role; }
+}
@@ -0,0 +1,63 @@
+package com.ftms.backend.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The properties of {@code T} a client may select with a {@code fields=}
+ * request parameter (e.g. {@code fields=id,title,status}), and how to read each
+ * of them. Selected items are written as JSON objects holding only those
+ * properties, in the order they were requested.
+ */
+public class SparseFieldset<T> {
+
+    private final Map<String, Function<T, Object>> accessors = new LinkedHashMap<>();
+
+    public SparseFieldset<T> field(String name, Function<T, Object> accessor) {
+        accessors.put(name, accessor);
+        return this;
+    }
+
+    /**
+     * Parses a comma-separated field list. Returns null when {@code fields} is
+     * null or blank, meaning the full representation was asked for.
+     *
+     * @throws IllegalArgumentException if a field is not selectable
+     */
+    public List<String> parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || names.contains(name)) {
+                continue;
+            }
+            if (!accessors.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'; allowed: " + String.join(",", accessors.keySet()));
+            }
+            names.add(name);
+        }
+        return names.isEmpty() ? null : names;
+    }
+
+    public Map<String, Object> project(T item, List<String> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            projected.put(field, accessors.get(field).apply(item));
+        }
+        return projected;
+    }
+
+    public List<Map<String, Object>> project(List<T> items, List<String> fields) {
+        List<Map<String, Object>> projected = new ArrayList<>(items.size());
+        for (T item : items) {
+            projected.add(project(item, fields));
+        }
+        return projected;
+    }
+}
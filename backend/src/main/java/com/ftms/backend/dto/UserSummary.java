@@ -0,0 +1,11 @@
+package com.ftms.backend.dto;
+
+/**
+ * Closed projection of {@link com.ftms.backend.entity.User} for user listings;
+ * only these columns are selected and the password is never loaded.
+ */
+public interface UserSummary {
+    String getUserId();
+    String getUsername();
+    String getRole();
+}
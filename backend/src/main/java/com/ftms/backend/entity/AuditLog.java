@@ -2,14 +2,24 @@ package com.ftms.backend.entity;
 
 
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import org.hibernate.annotations.Type;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_audit_log_file_time", columnList = "fileId, timestamp, logId"),
+        @Index(name = "idx_audit_log_time", columnList = "timestamp, logId")
+})
 public class AuditLog {
 
     @Id
+    @Type(type = "com.ftms.backend.persistence.UuidBinaryType")
+    @Column(columnDefinition = "BINARY(16)")
     private String logId;
     private String fileId;
     private String action;
@@ -1,19 +1,26 @@
 package com.ftms.backend.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Column;
+import javax.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class File {
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @Column(name = "file_id", updatable = false, nullable = false)
+    @GeneratedValue(generator = "time-ordered-uuid")
+    @GenericGenerator(name = "time-ordered-uuid", strategy = "com.ftms.backend.persistence.TimeOrderedUuidGenerator")
+    @Type(type = "com.ftms.backend.persistence.UuidBinaryType")
+    @Column(name = "file_id", updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private String id;
 
     private String title;
@@ -24,15 +31,14 @@ public class File {
     private String createdBy;
     private LocalDateTime timestamp;
 
-    public File() {
-        // Ensure id is initialized if not set by Hibernate
-        if (this.id == null) {
-            this.id = UUID.randomUUID().toString();
-        }
-    }
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    public File() {}
 
     public File(String id, String title, String status, String currentOfficer, String courseCode, String examSession, String createdBy, LocalDateTime timestamp) {
-        this.id = id != null ? id : UUID.randomUUID().toString();
+        this.id = id;
         this.title = title;
         this.status = status;
         this.currentOfficer = currentOfficer;
@@ -58,4 +64,6 @@ public class File {
     public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
\ No newline at end of file
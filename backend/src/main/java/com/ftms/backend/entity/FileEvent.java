@@ -0,0 +1,88 @@
+package com.ftms.backend.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a file, appended to the file_event table and never updated.
+ * The {@link File} row is the projection of a file's events in
+ * (fileVersion, eventId) order; see {@link com.ftms.backend.history.FileProjector}.
+ *
+ * {@code fileVersion} is the version the file has after the change, so all
+ * events written by one update share it. Only the columns the event changes
+ * are set; CREATED carries the full initial state.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_file_event_file_version", columnList = "fileId, fileVersion, eventId"))
+public class FileEvent {
+    public static final String CREATED = "CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String REASSIGNED = "REASSIGNED";
+    public static final String METADATA_EDITED = "METADATA_EDITED";
+
+    @Id
+    @GeneratedValue(generator = "time-ordered-uuid")
+    @GenericGenerator(name = "time-ordered-uuid", strategy = "com.ftms.backend.persistence.TimeOrderedUuidGenerator")
+    @Type(type = "com.ftms.backend.persistence.UuidBinaryType")
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private String eventId;
+
+    @Type(type = "com.ftms.backend.persistence.UuidBinaryType")
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private String fileId;
+
+    @Column(updatable = false, nullable = false)
+    private long fileVersion;
+
+    @Column(updatable = false, nullable = false, length = 32)
+    private String type;
+
+    private String title;
+    private String status;
+    private String currentOfficer;
+    private String courseCode;
+    private String examSession;
+    private String userId;
+    private LocalDateTime timestamp;
+
+    public FileEvent() {}
+
+    public FileEvent(String fileId, long fileVersion, String type, String userId, LocalDateTime timestamp) {
+        this.fileId = fileId;
+        this.fileVersion = fileVersion;
+        this.type = type;
+        this.userId = userId;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+    public String getFileId() { return fileId; }
+    public void setFileId(String fileId) { this.fileId = fileId; }
+    public long getFileVersion() { return fileVersion; }
+    public void setFileVersion(long fileVersion) { this.fileVersion = fileVersion; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getCurrentOfficer() { return currentOfficer; }
+    public void setCurrentOfficer(String currentOfficer) { this.currentOfficer = currentOfficer; }
+    public String getCourseCode() { return courseCode; }
+    public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
+    public String getExamSession() { return examSession; }
+    public void setExamSession(String examSession) { this.examSession = examSession; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,69 @@
+package com.ftms.backend.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+import java.time.LocalDateTime;
+
+/**
+ * The full state of a file at {@code fileVersion}, taken every
+ * {@code ftms.history.snapshot-every} versions so that reconstructing an old
+ * state only replays the events after the nearest earlier snapshot.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_file_snapshot_file_version", columnList = "fileId, fileVersion"))
+public class FileSnapshot {
+
+    @Id
+    @GeneratedValue(generator = "time-ordered-uuid")
+    @GenericGenerator(name = "time-ordered-uuid", strategy = "com.ftms.backend.persistence.TimeOrderedUuidGenerator")
+    @Type(type = "com.ftms.backend.persistence.UuidBinaryType")
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private String snapshotId;
+
+    @Type(type = "com.ftms.backend.persistence.UuidBinaryType")
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private String fileId;
+
+    @Column(updatable = false, nullable = false)
+    private long fileVersion;
+
+    private String title;
+    private String status;
+    private String currentOfficer;
+    private String courseCode;
+    private String examSession;
+    private String createdBy;
+    private LocalDateTime timestamp;
+
+    public FileSnapshot() {}
+
+    public FileSnapshot(File file) {
+        this.fileId = file.getId();
+        this.fileVersion = file.getVersion();
+        this.title = file.getTitle();
+        this.status = file.getStatus();
+        this.currentOfficer = file.getCurrentOfficer();
+        this.courseCode = file.getCourseCode();
+        this.examSession = file.getExamSession();
+        this.createdBy = file.getCreatedBy();
+        this.timestamp = file.getTimestamp();
+    }
+
+    public File toFile() {
+        File file = new File(fileId, title, status, currentOfficer, courseCode, examSession, createdBy, timestamp);
+        file.setVersion(fileVersion);
+        return file;
+    }
+
+    // Getters
+    public String getSnapshotId() { return snapshotId; }
+    public String getFileId() { return fileId; }
+    public long getFileVersion() { return fileVersion; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,27 @@
+package com.ftms.backend.event;
+
+import com.ftms.backend.entity.File;
+
+/**
+ * Published after a {@link File} has been saved. {@code previous} is a copy of
+ * the row as it was before the change and is null for newly registered files.
+ */
+public class FileChangedEvent {
+    private final File previous;
+    private final File current;
+    private final String userId;
+
+    public FileChangedEvent(File previous, File current, String userId) {
+        this.previous = previous;
+        this.current = current;
+        this.userId = userId;
+    }
+
+    public File getPrevious() { return previous; }
+    public File getCurrent() { return current; }
+    public String getUserId() { return userId; }
+
+    public boolean isCreate() {
+        return previous == null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ftms.backend.event;
+
+import com.ftms.backend.entity.User;
+
+/**
+ * Published after a {@link User} has been saved.
+ */
+public class UserChangedEvent {
+    private final User user;
+
+    public UserChangedEvent(User user) {
+        this.user = user;
+    }
+
+    public User getUser() { return user; }
+}
@@ -0,0 +1,303 @@
+package com.ftms.backend.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ftms.backend.entity.File;
+import com.ftms.backend.event.FileChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans {@link FileChangedEvent}s out to Server-Sent-Events subscribers.
+ *
+ * Each event is serialized once and offered to the queue of every subscriber
+ * whose filter matches, so publishing never blocks on a client. Queues hold at
+ * most {@code ftms.feed.buffer-size} events; when a subscriber falls that far
+ * behind, its queue is dropped and it is sent a single {@code resync} event
+ * instead, after which it should reload what it shows. A small pool of
+ * {@code ftms.feed.send-threads} threads drains the queues into the
+ * connections; idle subscribers hold no thread.
+ *
+ * A write to a client that stopped reading blocks its sender thread. A write
+ * that takes longer than {@code ftms.feed.send-timeout-ms} drops the
+ * subscriber and interrupts the thread, so one slow client cannot tie up the
+ * pool that all subscribers share.
+ */
+@Component
+public class FileChangeFeed implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileChangeFeed.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private final AtomicLong sendTimeouts = new AtomicLong();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ftms.feed.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${ftms.feed.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${ftms.feed.send-threads:8}")
+    private int sendThreads;
+
+    @Value("${ftms.feed.heartbeat-ms:30000}")
+    private long heartbeatMs;
+
+    @Value("${ftms.feed.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${ftms.feed.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private ExecutorService sender;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNo = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(Math.max(1, sendThreads), r -> {
+            Thread thread = new Thread(r, "file-feed-sender-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "file-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Keeps idle connections open through proxies and finds clients that went away.
+        heartbeat.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        if (sendTimeoutMs > 0) {
+            long checkMs = Math.max(100, sendTimeoutMs / 4);
+            heartbeat.scheduleWithFixedDelay(this::abandonStalledSends, checkMs, checkMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void abandonStalledSends() {
+        long now = System.nanoTime();
+        long limit = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.abandonIfStalled(now, limit);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Opens a stream of changes to files whose officer and status match the given
+     * filters, either of which may be null. A client resuming after a disconnect
+     * ({@code resume}) is sent {@code resync} first, since missed events are not
+     * replayed. Returns null when {@code ftms.feed.max-subscribers} are connected.
+     */
+    public SseEmitter subscribe(String officer, String status, boolean resume) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, officer, status);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        if (resume) {
+            subscriber.resyncPending = true;
+            subscriber.schedule();
+        } else {
+            subscriber.heartbeat(); // sends the response headers right away
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onFileChanged(FileChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event.getCurrent());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize change to file {}", event.getCurrent().getId(), e);
+            return;
+        }
+        Message message = new Message(sequence.incrementAndGet(), event.isCreate() ? "created" : "updated", data);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event)) {
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("published", sequence.get());
+        stats.put("sent", sent.get());
+        stats.put("resyncs", resyncs.get());
+        stats.put("sendTimeouts", sendTimeouts.get());
+        return stats;
+    }
+
+    private static final class Message {
+        final long id;
+        final String type;
+        final String data;
+
+        Message(long id, String type, String data) {
+            this.id = id;
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final String officer;
+        final String status;
+        final ArrayBlockingQueue<Message> queue = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean resyncPending;
+        volatile boolean heartbeatPending;
+        volatile boolean abandoned;
+        // Set while a send is in progress; guarded by this
+        private Thread sendingThread;
+        private long sendStarted;
+
+        Subscriber(SseEmitter emitter, String officer, String status) {
+            this.emitter = emitter;
+            this.officer = officer;
+            this.status = status;
+        }
+
+        // A file leaving the filter (reassigned away, status moved on) is still reported.
+        boolean matches(FileChangedEvent event) {
+            return matches(event.getCurrent()) || (event.getPrevious() != null && matches(event.getPrevious()));
+        }
+
+        private boolean matches(File file) {
+            return (officer == null || officer.equals(file.getCurrentOfficer()))
+                    && (status == null || status.equals(file.getStatus()));
+        }
+
+        void offer(Message message) {
+            if (!queue.offer(message)) {
+                queue.clear();
+                if (!resyncPending) {
+                    resyncs.incrementAndGet();
+                }
+                resyncPending = true;
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeatPending = true;
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    if (resyncPending) {
+                        resyncPending = false;
+                        send(SseEmitter.event().name("resync").data(""));
+                        continue;
+                    }
+                    Message message = queue.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    send(SseEmitter.event().id(Long.toString(message.id)).name(message.type).data(message.data));
+                    sent.incrementAndGet();
+                }
+                if (heartbeatPending) {
+                    heartbeatPending = false;
+                    send(SseEmitter.event().comment("ping"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed.
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // Something may have arrived between the last poll and releasing the flag.
+            if ((resyncPending || heartbeatPending || !queue.isEmpty()) && subscribers.contains(this)) {
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                if (abandoned) {
+                    throw new IOException("Send timed out");
+                }
+                sendingThread = Thread.currentThread();
+                sendStarted = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sendingThread = null;
+                    // An interrupt meant for this send must not reach the next task of the pool thread
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        synchronized void abandonIfStalled(long now, long limit) {
+            if (sendingThread == null || abandoned || now - sendStarted < limit) {
+                return;
+            }
+            abandoned = true;
+            subscribers.remove(this);
+            sendTimeouts.incrementAndGet();
+            sendingThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.ftms.backend.history;
+
+import com.ftms.backend.entity.File;
+import com.ftms.backend.entity.FileEvent;
+import com.ftms.backend.entity.FileSnapshot;
+import com.ftms.backend.persistence.TimeOrderedUuid;
+import com.ftms.backend.repository.FileEventRepository;
+import com.ftms.backend.repository.FileRepository;
+import com.ftms.backend.repository.FileSnapshotRepository;
+import com.ftms.backend.search.FileSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes file changes as {@link FileEvent}s and keeps the {@link File} row, the
+ * current-state projection, up to date in the same transaction.
+ *
+ * Every {@code ftms.history.snapshot-every} versions a {@link FileSnapshot} is
+ * stored, and {@link #stateAsOf} rebuilds a past state from the nearest earlier
+ * snapshot plus the events after it. {@link #rebuildProjections} replays the
+ * whole log into the file table, {@code ftms.history.rebuild-threads} chunks of
+ * files at a time. Only one rebuild runs at a time, and never together with the
+ * startup backfill.
+ */
+@Service
+public class FileHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileHistoryService.class);
+
+    // A row is only overwritten if it is not newer than the replayed state, so a
+    // rebuild never undoes a write that committed while it was running.
+    private static final String UPDATE_SQL = "update file set title = ?, status = ?, current_officer = ?, course_code = ?, " +
+            "exam_session = ?, created_by = ?, timestamp = ?, version = ? where file_id = ? and version <= ?";
+    private static final String INSERT_SQL = "insert into file (title, status, current_officer, course_code, exam_session, " +
+            "created_by, timestamp, version, file_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FileEventRepository fileEventRepository;
+
+    @Autowired
+    private FileSnapshotRepository fileSnapshotRepository;
+
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${ftms.history.snapshot-every:50}")
+    private int snapshotEvery;
+
+    @Value("${ftms.history.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${ftms.history.rebuild-chunk-size:500}")
+    private int rebuildChunkSize;
+
+    @Value("${ftms.history.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    // Held by a projection rebuild or the startup backfill
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    /** Persists a new file together with its CREATED event. */
+    @Transactional
+    public File register(File file, String userId) {
+        File saved = fileRepository.save(file);
+        entityManager.persist(FileProjector.created(saved, userId));
+        return saved;
+    }
+
+    /**
+     * Applies the non-null fields of {@code updates} to {@code file} by appending the
+     * corresponding events and projecting them onto the row. Returns the file
+     * unchanged, without a new version, if nothing would change.
+     *
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the
+     *         file was changed since {@code file} was read
+     */
+    @Transactional
+    public File update(File file, File updates, String userId) {
+        List<FileEvent> events = FileProjector.diff(file, updates, userId, LocalDateTime.now());
+        if (events.isEmpty()) {
+            return file;
+        }
+        for (FileEvent event : events) {
+            FileProjector.apply(file, event);
+        }
+        File saved = fileRepository.saveAndFlush(file);
+        for (FileEvent event : events) {
+            entityManager.persist(event);
+        }
+        if (snapshotEvery > 0 && saved.getVersion() % snapshotEvery == 0) {
+            entityManager.persist(new FileSnapshot(saved));
+        }
+        return saved;
+    }
+
+    /**
+     * Applies the same {@code updates} to every file in {@code files}, as {@link #update}
+     * does for one, and returns those that changed. All rows are flushed together so
+     * Hibernate can send the updates as one JDBC batch.
+     *
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if any of
+     *         the files was changed since it was read
+     */
+    @Transactional
+    public List<File> updateAll(List<File> files, File updates, String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<File> changed = new ArrayList<>(files.size());
+        for (File file : files) {
+            List<FileEvent> events = FileProjector.diff(file, updates, userId, now);
+            if (events.isEmpty()) {
+                continue;
+            }
+            for (FileEvent event : events) {
+                FileProjector.apply(file, event);
+                entityManager.persist(event);
+            }
+            changed.add(file);
+        }
+        fileRepository.flush();
+        for (File file : changed) {
+            if (snapshotEvery > 0 && file.getVersion() % snapshotEvery == 0) {
+                entityManager.persist(new FileSnapshot(file));
+            }
+        }
+        return changed;
+    }
+
+    public List<FileEvent> getEvents(String fileId) {
+        return fileEventRepository.findByFileIdOrderByFileVersionAscEventIdAsc(fileId);
+    }
+
+    /** The file as it was at {@code at}, or empty if it did not exist yet. */
+    @Transactional(readOnly = true)
+    public Optional<File> stateAsOf(String fileId, LocalDateTime at) {
+        Optional<FileSnapshot> snapshot = fileSnapshotRepository
+                .findFirstByFileIdAndTimestampLessThanEqualOrderByFileVersionDesc(fileId, at);
+        File state = snapshot.map(FileSnapshot::toFile).orElse(null);
+        long afterVersion = snapshot.map(FileSnapshot::getFileVersion).orElse(-1L);
+        for (FileEvent event : fileEventRepository.findTail(fileId, afterVersion, at)) {
+            state = FileProjector.apply(state, event);
+            state.setVersion(event.getFileVersion());
+        }
+        return Optional.ofNullable(state);
+    }
+
+    /**
+     * Recomputes every file row from the event log, replaying chunks of files in
+     * parallel, then refreshes the second-level cache and the search index; the
+     * index is rebuilt from the primary, so it holds the replayed rows.
+     * Returns empty without doing anything if a rebuild or the startup backfill
+     * is already running.
+     */
+    public Optional<Map<String, Object>> rebuildProjections() {
+        if (!maintenanceLock.tryLock()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(replayAll());
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private Map<String, Object> replayAll() {
+        long started = System.nanoTime();
+        List<String> fileIds = fileEventRepository.findFileIds();
+        AtomicLong events = new AtomicLong();
+        AtomicLong updated = new AtomicLong();
+        AtomicLong inserted = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, rebuildThreads),
+                r -> new Thread(r, "file-projection-rebuild-" + threadNo.incrementAndGet()));
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < fileIds.size(); from += rebuildChunkSize) {
+                List<String> chunk = fileIds.subList(from, Math.min(from + rebuildChunkSize, fileIds.size()));
+                chunks.add(pool.submit(() -> rebuildChunk(chunk, events, updated, inserted, skipped)));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Projection rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Projection rebuild failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // The rows were rewritten with plain JDBC, behind Hibernate's back. The index
+        // re-reads them from the primary, since replicas may not have the replay yet.
+        entityManagerFactory.getCache().evict(File.class);
+        fileSearchIndex.rebuild();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("files", fileIds.size());
+        result.put("events", events.get());
+        result.put("updated", updated.get());
+        result.put("inserted", inserted.get());
+        result.put("skippedNewer", skipped.get());
+        result.put("elapsedMs", (System.nanoTime() - started) / 1_000_000);
+        log.info("Rebuilt file projections: {}", result);
+        return result;
+    }
+
+    private void rebuildChunk(List<String> fileIds, AtomicLong events, AtomicLong updated,
+                              AtomicLong inserted, AtomicLong skipped) {
+        Map<String, File> states = new LinkedHashMap<>();
+        List<FileEvent> replayed = fileEventRepository.findByFileIds(fileIds);
+        for (FileEvent event : replayed) {
+            File state = FileProjector.apply(states.get(event.getFileId()), event);
+            state.setVersion(event.getFileVersion());
+            states.put(event.getFileId(), state);
+        }
+        events.addAndGet(replayed.size());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> existing = existingIds(states.keySet());
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            for (File state : states.values()) {
+                byte[] id = TimeOrderedUuid.toBytes(state.getId());
+                Object[] columns = {
+                        state.getTitle(), state.getStatus(), state.getCurrentOfficer(), state.getCourseCode(),
+                        state.getExamSession(), state.getCreatedBy(),
+                        state.getTimestamp() == null ? null : Timestamp.valueOf(state.getTimestamp()),
+                        state.getVersion(), id
+                };
+                if (existing.contains(state.getId())) {
+                    Object[] row = new Object[columns.length + 1];
+                    System.arraycopy(columns, 0, row, 0, columns.length);
+                    row[columns.length] = state.getVersion();
+                    updates.add(row);
+                } else {
+                    inserts.add(columns);
+                }
+            }
+            for (int count : jdbcTemplate.batchUpdate(UPDATE_SQL, updates)) {
+                if (count == 0) {
+                    skipped.incrementAndGet();
+                } else {
+                    updated.incrementAndGet();
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            inserted.addAndGet(inserts.size());
+        });
+    }
+
+    private Set<String> existingIds(Set<String> fileIds) {
+        if (fileIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Object> params = new ArrayList<>(fileIds.size());
+        for (String id : fileIds) {
+            params.add(TimeOrderedUuid.toBytes(id));
+        }
+        String placeholders = String.join(", ", Collections.nCopies(params.size(), "?"));
+        List<byte[]> rows = jdbcTemplate.queryForList(
+                "select file_id from file where file_id in (" + placeholders + ")", byte[].class, params.toArray());
+        Set<String> existing = new HashSet<>(rows.size() * 2);
+        for (byte[] row : rows) {
+            existing.add(TimeOrderedUuid.fromBytes(row));
+        }
+        return existing;
+    }
+
+    /**
+     * Gives files written before the event log existed a CREATED event holding their
+     * current state, so every file can be replayed. Earlier history is not known.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        // Waits for a rebuild that an early request started before the application was ready
+        maintenanceLock.lock();
+        try {
+            backfillAll();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private void backfillAll() {
+        int total = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<File> files = fileRepository.findWithoutEvents(PageRequest.of(0, rebuildChunkSize));
+                for (File file : files) {
+                    entityManager.persist(FileProjector.created(file, file.getCreatedBy()));
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return files.size();
+            });
+            if (count == null || count == 0) {
+                break;
+            }
+            total += count;
+        }
+        if (total > 0) {
+            log.info("Backfilled CREATED events for {} file(s) without history", total);
+        }
+    }
+}
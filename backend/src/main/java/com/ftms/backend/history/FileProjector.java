@@ -0,0 +1,87 @@
+package com.ftms.backend.history;
+
+import com.ftms.backend.entity.File;
+import com.ftms.backend.entity.FileEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Turns file changes into {@link FileEvent}s and folds events back into a
+ * {@link File}. Live writes and projection rebuilds both go through
+ * {@link #apply}, so a rebuilt row always matches the incrementally maintained one.
+ */
+public final class FileProjector {
+
+    private FileProjector() {}
+
+    /** The CREATED event for a newly persisted file (its id must already be assigned). */
+    public static FileEvent created(File file, String userId) {
+        FileEvent event = new FileEvent(file.getId(), file.getVersion(), FileEvent.CREATED, userId, file.getTimestamp());
+        event.setTitle(file.getTitle());
+        event.setStatus(file.getStatus());
+        event.setCurrentOfficer(file.getCurrentOfficer());
+        event.setCourseCode(file.getCourseCode());
+        event.setExamSession(file.getExamSession());
+        return event;
+    }
+
+    /**
+     * The events that take {@code current} to {@code current} with the non-null fields
+     * of {@code updates} applied, stamped with the version the update will produce.
+     * Fields that already have the requested value produce no event.
+     */
+    public static List<FileEvent> diff(File current, File updates, String userId, LocalDateTime at) {
+        long version = current.getVersion() + 1;
+        List<FileEvent> events = new ArrayList<>(3);
+        if (changed(current.getStatus(), updates.getStatus())) {
+            FileEvent event = new FileEvent(current.getId(), version, FileEvent.STATUS_CHANGED, userId, at);
+            event.setStatus(updates.getStatus());
+            events.add(event);
+        }
+        if (changed(current.getCurrentOfficer(), updates.getCurrentOfficer())) {
+            FileEvent event = new FileEvent(current.getId(), version, FileEvent.REASSIGNED, userId, at);
+            event.setCurrentOfficer(updates.getCurrentOfficer());
+            events.add(event);
+        }
+        boolean title = changed(current.getTitle(), updates.getTitle());
+        boolean courseCode = changed(current.getCourseCode(), updates.getCourseCode());
+        boolean examSession = changed(current.getExamSession(), updates.getExamSession());
+        if (title || courseCode || examSession) {
+            FileEvent event = new FileEvent(current.getId(), version, FileEvent.METADATA_EDITED, userId, at);
+            event.setTitle(title ? updates.getTitle() : null);
+            event.setCourseCode(courseCode ? updates.getCourseCode() : null);
+            event.setExamSession(examSession ? updates.getExamSession() : null);
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Applies one event to {@code file} (null before CREATED) and returns the result.
+     * The version is not touched; Hibernate maintains it on live writes and
+     * rebuilds take it from the last event.
+     */
+    public static File apply(File file, FileEvent event) {
+        if (FileEvent.CREATED.equals(event.getType())) {
+            return new File(event.getFileId(), event.getTitle(), event.getStatus(), event.getCurrentOfficer(),
+                    event.getCourseCode(), event.getExamSession(), event.getUserId(), event.getTimestamp());
+        }
+        if (file == null) {
+            throw new IllegalStateException("Event " + event.getEventId() + " of file " + event.getFileId() + " precedes its CREATED event");
+        }
+        if (event.getTitle() != null) file.setTitle(event.getTitle());
+        if (event.getStatus() != null) file.setStatus(event.getStatus());
+        if (event.getCurrentOfficer() != null) file.setCurrentOfficer(event.getCurrentOfficer());
+        if (event.getCourseCode() != null) file.setCourseCode(event.getCourseCode());
+        if (event.getExamSession() != null) file.setExamSession(event.getExamSession());
+        file.setTimestamp(event.getTimestamp());
+        return file;
+    }
+
+    private static boolean changed(String current, String requested) {
+        return requested != null && !Objects.equals(current, requested);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ftms.backend.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Position in a (timestamp, id) ordering. Clients only ever see the opaque
+ * string produced by {@link #encode()} and hand it back unchanged to fetch
+ * the rows that follow.
+ */
+public final class KeysetCursor implements Comparable<KeysetCursor> {
+
+    private static final Comparator<KeysetCursor> ORDER = Comparator
+            .comparing(KeysetCursor::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(KeysetCursor::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final LocalDateTime timestamp;
+    private final String id;
+
+    public KeysetCursor(LocalDateTime timestamp, String id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getId() { return id; }
+
+    public String encode() {
+        String raw = (timestamp == null ? "" : timestamp.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            String time = raw.substring(0, separator);
+            return new KeysetCursor(time.isEmpty() ? null : LocalDateTime.parse(time), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    @Override
+    public int compareTo(KeysetCursor other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KeysetCursor)) return false;
+        KeysetCursor that = (KeysetCursor) o;
+        return Objects.equals(timestamp, that.timestamp) && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, id);
+    }
+}
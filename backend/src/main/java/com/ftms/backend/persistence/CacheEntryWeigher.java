@@ -0,0 +1,54 @@
+package com.ftms.backend.persistence;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import java.util.Collection;
+
+/**
+ * Approximate size in bytes of a second-level cache entry, used to bound the
+ * Hibernate cache regions by memory rather than by entry count (see
+ * {@code application.conf}). Entity entries are weighed by their disassembled
+ * column values, including the lock wrapper of read-write regions.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_OVERHEAD = 16;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        return Math.max(1, weightOf(key) + weightOf(value));
+    }
+
+    private static int weightOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof AbstractReadWriteAccess.Item) {
+            return OBJECT_OVERHEAD + weightOf(((AbstractReadWriteAccess.Item) value).getValue());
+        }
+        if (value instanceof CacheEntry) {
+            return OBJECT_OVERHEAD + weightOf(((CacheEntry) value).getDisassembledState());
+        }
+        if (value instanceof String) {
+            return 40 + 2 * ((String) value).length();
+        }
+        if (value instanceof Object[]) {
+            int weight = OBJECT_OVERHEAD;
+            for (Object element : (Object[]) value) {
+                weight += 8 + weightOf(element);
+            }
+            return weight;
+        }
+        if (value instanceof Collection) {
+            int weight = OBJECT_OVERHEAD;
+            for (Object element : (Collection<?>) value) {
+                weight += 8 + weightOf(element);
+            }
+            return weight;
+        }
+        // Keys, numbers, timestamps and locks are all small fixed-size objects.
+        return 32;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ftms.backend.persistence;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUIDv7-style identifiers: a 48-bit Unix millisecond timestamp followed by a
+ * 12-bit sequence and 62 random bits. Identifiers generated by one JVM sort in
+ * creation order, both as strings and as their 16-byte binary form, so new
+ * rows are appended to the end of the clustered index instead of landing on
+ * random pages.
+ */
+public final class TimeOrderedUuid {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static long lastMillis = -1;
+    private static int sequence;
+
+    private TimeOrderedUuid() {
+    }
+
+    public static String next() {
+        long millis;
+        int seq;
+        synchronized (TimeOrderedUuid.class) {
+            millis = System.currentTimeMillis();
+            if (millis <= lastMillis) {
+                millis = lastMillis;
+                sequence++;
+                if (sequence > 0xFFF) {
+                    // 4096 ids in one millisecond: borrow the next millisecond to stay ordered
+                    millis = ++lastMillis;
+                    sequence = 0;
+                }
+            } else {
+                lastMillis = millis;
+                sequence = RANDOM.nextInt(0x800); // random start leaves headroom before overflow
+            }
+            seq = sequence;
+        }
+        long msb = (millis << 16) | 0x7000L | seq;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    public static boolean isValid(String value) {
+        if (value == null || value.length() != 36) {
+            return false;
+        }
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static byte[] toBytes(String value) {
+        UUID uuid = UUID.fromString(value);
+        byte[] bytes = new byte[16];
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (msb >>> (56 - 8 * i));
+            bytes[8 + i] = (byte) (lsb >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xFF);
+            lsb = (lsb << 8) | (bytes[8 + i] & 0xFF);
+        }
+        return new UUID(msb, lsb).toString();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ftms.backend.persistence;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+
+/** Hibernate id generator for {@link TimeOrderedUuid} keys. */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return TimeOrderedUuid.next();
+    }
+}
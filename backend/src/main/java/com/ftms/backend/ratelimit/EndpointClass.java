@@ -0,0 +1,30 @@
+package com.ftms.backend.ratelimit;
+
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+
+/** The groups of endpoints that each get their own rate limit per user. */
+public enum EndpointClass {
+    SEARCH,
+    READ,
+    WRITE;
+
+    /** The class named by the handler's {@link RateLimited}, otherwise the one its HTTP method implies. */
+    static EndpointClass of(HttpServletRequest request, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            RateLimited rateLimited = ((HandlerMethod) handler).getMethodAnnotation(RateLimited.class);
+            if (rateLimited != null) {
+                return rateLimited.value();
+            }
+        }
+        switch (request.getMethod()) {
+            case "GET":
+            case "HEAD":
+            case "OPTIONS":
+                return READ;
+            default:
+                return WRITE;
+        }
+    }
+}
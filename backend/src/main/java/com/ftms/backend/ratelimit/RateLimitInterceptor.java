@@ -0,0 +1,77 @@
+package com.ftms.backend.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimiter} to every API request before it reaches a handler.
+ * Requests are keyed by their {@code User-Id}, or by client address when the
+ * header is missing. A throttled request gets 429 with {@code Retry-After} in
+ * whole seconds.
+ */
+@Component
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SEARCH_SLOT = RateLimitInterceptor.class.getName() + ".searchSlot";
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${ftms.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // A streamed response is dispatched again when it completes; it was admitted the first time.
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String user = userKey(request);
+        EndpointClass endpointClass = EndpointClass.of(request, handler);
+        long waitNanos = rateLimiter.tryAcquire(user, endpointClass);
+        if (waitNanos > 0) {
+            reject(response, waitNanos, "Rate limit exceeded for " + endpointClass.name().toLowerCase() + " requests");
+            return false;
+        }
+        if (endpointClass == EndpointClass.SEARCH) {
+            if (!rateLimiter.tryEnterSearch(user)) {
+                reject(response, TimeUnit.SECONDS.toNanos(1), "Too many searches in progress");
+                return false;
+            }
+            request.setAttribute(SEARCH_SLOT, user);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object user = request.getAttribute(SEARCH_SLOT);
+        if (user != null) {
+            request.removeAttribute(SEARCH_SLOT);
+            rateLimiter.exitSearch((String) user);
+        }
+    }
+
+    private static String userKey(HttpServletRequest request) {
+        String userId = request.getHeader("User-Id");
+        return userId != null && !userId.isEmpty() ? userId : "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(Math.max(1, waitNanos) - 1) + 1;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
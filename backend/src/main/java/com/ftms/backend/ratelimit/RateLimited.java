@@ -0,0 +1,19 @@
+package com.ftms.backend.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler method in an {@link EndpointClass} other than the one its HTTP
+ * method implies. The class follows the handler, not the URL, so every path
+ * that maps to the handler is limited the same way.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimited {
+    EndpointClass value();
+}
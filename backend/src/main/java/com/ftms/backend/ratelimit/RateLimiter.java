@@ -0,0 +1,179 @@
+package com.ftms.backend.ratelimit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user token buckets, one for each {@link EndpointClass}. A user's buckets
+ * are created on first use and found again with a plain {@link ConcurrentHashMap}
+ * read; taking a token is a compare-and-set on the bucket (see {@link TokenBucket}).
+ *
+ * Searches are also limited to {@code ftms.ratelimit.search.max-concurrent} in
+ * flight per user, so one user cannot hold most of the connection pool with slow
+ * searches even while within their rate. Buckets that have been idle for
+ * {@code ftms.ratelimit.idle-evict-ms} and are full again are dropped. The
+ * in-flight counts live in a map of their own, which drops a user's entry when
+ * their last search ends, so evicting buckets never loses a running search.
+ */
+@Component
+public class RateLimiter implements DisposableBean {
+
+    @Value("${ftms.ratelimit.search.capacity:20}")
+    private double searchCapacity;
+
+    @Value("${ftms.ratelimit.search.per-second:5}")
+    private double searchPerSecond;
+
+    @Value("${ftms.ratelimit.read.capacity:200}")
+    private double readCapacity;
+
+    @Value("${ftms.ratelimit.read.per-second:50}")
+    private double readPerSecond;
+
+    @Value("${ftms.ratelimit.write.capacity:50}")
+    private double writeCapacity;
+
+    @Value("${ftms.ratelimit.write.per-second:10}")
+    private double writePerSecond;
+
+    @Value("${ftms.ratelimit.search.max-concurrent:4}")
+    private int searchMaxConcurrent;
+
+    @Value("${ftms.ratelimit.idle-evict-ms:600000}")
+    private long idleEvictMs;
+
+    private final ConcurrentHashMap<String, TokenBucket[]> buckets = new ConcurrentHashMap<>();
+    // Users with searches running; an entry is removed when its count drops to zero
+    private final ConcurrentHashMap<String, Integer> searchesInFlight = new ConcurrentHashMap<>();
+    private final LongAdder evicted = new LongAdder();
+    private ScheduledExecutorService evictor;
+
+    @PostConstruct
+    void start() {
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limit-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleEvictMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        evictor.shutdownNow();
+    }
+
+    /**
+     * Takes a token from {@code user}'s bucket for {@code endpointClass}. Returns 0
+     * if the request may go ahead, otherwise the nanoseconds until it may be retried.
+     */
+    public long tryAcquire(String user, EndpointClass endpointClass) {
+        return bucket(user, endpointClass).tryAcquire(System.nanoTime());
+    }
+
+    /** Claims one of {@code user}'s concurrent search slots; false if all are taken. */
+    public boolean tryEnterSearch(String user) {
+        boolean[] entered = new boolean[1];
+        searchesInFlight.compute(user, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= searchMaxConcurrent) {
+                return count;
+            }
+            entered[0] = true;
+            return current + 1;
+        });
+        if (!entered[0]) {
+            bucket(user, EndpointClass.SEARCH).throttled.increment();
+        }
+        return entered[0];
+    }
+
+    /** Releases a slot claimed with {@link #tryEnterSearch}. */
+    public void exitSearch(String user) {
+        searchesInFlight.computeIfPresent(user, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private TokenBucket bucket(String user, EndpointClass endpointClass) {
+        TokenBucket[] userBuckets = buckets.get(user);
+        if (userBuckets == null) {
+            userBuckets = buckets.computeIfAbsent(user, key -> newBuckets());
+        }
+        return userBuckets[endpointClass.ordinal()];
+    }
+
+    private TokenBucket[] newBuckets() {
+        long now = System.nanoTime();
+        TokenBucket[] userBuckets = new TokenBucket[EndpointClass.values().length];
+        userBuckets[EndpointClass.SEARCH.ordinal()] = new TokenBucket(searchCapacity, searchPerSecond, now);
+        userBuckets[EndpointClass.READ.ordinal()] = new TokenBucket(readCapacity, readPerSecond, now);
+        userBuckets[EndpointClass.WRITE.ordinal()] = new TokenBucket(writeCapacity, writePerSecond, now);
+        return userBuckets;
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictMs);
+        buckets.forEach((user, userBuckets) -> {
+            for (TokenBucket bucket : userBuckets) {
+                if (!bucket.isIdle(now, idleNanos)) {
+                    return;
+                }
+            }
+            if (buckets.remove(user, userBuckets)) {
+                evicted.increment();
+            }
+        });
+    }
+
+    /** Allowed and throttled counts per user and endpoint class, most throttled users first. */
+    public Map<String, Object> stats(int limit) {
+        List<Map<String, Object>> users = new ArrayList<>();
+        long allowed = 0;
+        long throttled = 0;
+        for (Map.Entry<String, TokenBucket[]> entry : buckets.entrySet()) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("user", entry.getKey());
+            long userThrottled = 0;
+            for (EndpointClass endpointClass : EndpointClass.values()) {
+                TokenBucket bucket = entry.getValue()[endpointClass.ordinal()];
+                Map<String, Object> counts = new LinkedHashMap<>();
+                long bucketAllowed = bucket.allowed.sum();
+                long bucketThrottled = bucket.throttled.sum();
+                counts.put("allowed", bucketAllowed);
+                counts.put("throttled", bucketThrottled);
+                if (endpointClass == EndpointClass.SEARCH) {
+                    counts.put("inFlight", searchesInFlight.getOrDefault(entry.getKey(), 0));
+                }
+                user.put(endpointClass.name().toLowerCase(), counts);
+                allowed += bucketAllowed;
+                throttled += bucketThrottled;
+                userThrottled += bucketThrottled;
+            }
+            user.put("throttled", userThrottled);
+            users.add(user);
+        }
+        users.sort(Comparator.comparingLong((Map<String, Object> user) -> (Long) user.get("throttled")).reversed());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("trackedUsers", users.size());
+        result.put("evictedUsers", evicted.sum());
+        result.put("allowed", allowed);
+        result.put("throttled", throttled);
+        result.put("users", users.subList(0, Math.min(Math.max(0, limit), users.size())));
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ftms.backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds up to {@code capacity} tokens and gains {@code perSecond} tokens a second.
+ * The level and the time it was computed are swapped together with a single
+ * compare-and-set, so taking a token never blocks.
+ */
+final class TokenBucket {
+
+    private static final class State {
+        final double tokens;
+        final long nanos;
+
+        State(double tokens, long nanos) {
+            this.tokens = tokens;
+            this.nanos = nanos;
+        }
+    }
+
+    private final double capacity;
+    private final double perNano;
+    private final AtomicReference<State> state;
+
+    final LongAdder allowed = new LongAdder();
+    final LongAdder throttled = new LongAdder();
+
+    TokenBucket(double capacity, double perSecond, long now) {
+        this.capacity = capacity;
+        this.perNano = perSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    /**
+     * Takes one token. Returns 0 if one was available, otherwise the nanoseconds
+     * until one will be.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            State current = state.get();
+            long elapsed = Math.max(0, now - current.nanos);
+            double tokens = Math.min(capacity, current.tokens + elapsed * perNano);
+            if (tokens < 1) {
+                throttled.increment();
+                return perNano > 0 ? (long) Math.ceil((1 - tokens) / perNano) : Long.MAX_VALUE;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.nanos)))) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /** Whether nothing was taken for {@code idleNanos} and the bucket is full again. */
+    boolean isIdle(long now, long idleNanos) {
+        State current = state.get();
+        return now - current.nanos > idleNanos
+                && current.tokens + (now - current.nanos) * perNano >= capacity;
+    }
+}
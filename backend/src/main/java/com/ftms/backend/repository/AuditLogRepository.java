@@ -2,8 +2,8 @@ package com.ftms.backend.repository;
 
 import com.ftms.backend.entity.AuditLog;
 import org.springframework.data.jpa.repository.JpaRepository;
-import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
-    List<AuditLog> findByFileId(String fileId);
-}
\ No newline at end of file
+@Transactional(readOnly = true)
+public interface AuditLogRepository extends JpaRepository<AuditLog, String>, AuditLogRepositoryCustom {
+}
@@ -0,0 +1,24 @@
+package com.ftms.backend.repository;
+
+import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.paging.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Audit lookups that are answered by the {@link com.ftms.backend.audit.AuditJournal}
+ * when it is enabled and by the audit_log table otherwise.
+ */
+public interface AuditLogRepositoryCustom {
+    List<AuditLog> findByFileId(String fileId);
+
+    /**
+     * Returns at most {@code limit} entries of a file ordered by (timestamp, logId),
+     * newest first when {@code descending}. {@code from} is inclusive, {@code to}
+     * exclusive, and {@code after} continues from a previously returned entry in
+     * the same direction; any of them may be null.
+     */
+    List<AuditLog> findByFileId(String fileId, LocalDateTime from, LocalDateTime to,
+                                KeysetCursor after, boolean descending, int limit);
+}
@@ -0,0 +1,71 @@
+package com.ftms.backend.repository;
+
+import com.ftms.backend.audit.AuditJournal;
+import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.paging.KeysetCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public class AuditLogRepositoryCustomImpl implements AuditLogRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
+
+    @Override
+    public List<AuditLog> findByFileId(String fileId) {
+        if (auditJournal != null) {
+            return auditJournal.findByFileId(fileId);
+        }
+        return entityManager.createQuery("select a from AuditLog a where a.fileId = :fileId", AuditLog.class)
+                .setParameter("fileId", fileId)
+                .getResultList();
+    }
+
+    // Every variant is a range scan on idx_audit_log_file_time (fileId, timestamp, logId).
+    @Override
+    public List<AuditLog> findByFileId(String fileId, LocalDateTime from, LocalDateTime to,
+                                       KeysetCursor after, boolean descending, int limit) {
+        if (auditJournal != null) {
+            return auditJournal.findByFileId(fileId, from, to, after, descending, limit);
+        }
+        String seek = descending ? "<" : ">";
+        StringBuilder jpql = new StringBuilder("select a from AuditLog a where a.fileId = :fileId");
+        if (from != null) {
+            jpql.append(" and a.timestamp >= :from");
+        }
+        if (to != null) {
+            jpql.append(" and a.timestamp < :to");
+        }
+        if (after != null) {
+            jpql.append(" and (a.timestamp ").append(seek).append(" :afterTime or (a.timestamp = :afterTime and a.logId ")
+                    .append(seek).append(" :afterId))");
+        }
+        String direction = descending ? " desc" : " asc";
+        jpql.append(" order by a.timestamp").append(direction).append(", a.logId").append(direction);
+
+        TypedQuery<AuditLog> query = entityManager.createQuery(jpql.toString(), AuditLog.class)
+                .setParameter("fileId", fileId)
+                .setMaxResults(limit);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (after != null) {
+            query.setParameter("afterTime", after.getTimestamp());
+            query.setParameter("afterId", after.getId());
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,29 @@
+package com.ftms.backend.repository;
+
+import com.ftms.backend.entity.FileEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface FileEventRepository extends JpaRepository<FileEvent, String> {
+    List<FileEvent> findByFileIdOrderByFileVersionAscEventIdAsc(String fileId);
+
+    // Events after a snapshot's version, up to and including time `at`.
+    @Query("select e from FileEvent e where e.fileId = :fileId and e.fileVersion > :afterVersion " +
+            "and e.timestamp <= :at order by e.fileVersion, e.eventId")
+    List<FileEvent> findTail(@Param("fileId") String fileId,
+                             @Param("afterVersion") long afterVersion,
+                             @Param("at") LocalDateTime at);
+
+    @Query("select distinct e.fileId from FileEvent e")
+    List<String> findFileIds();
+
+    @Query("select e from FileEvent e where e.fileId in :fileIds order by e.fileId, e.fileVersion, e.eventId")
+    List<FileEvent> findByFileIds(@Param("fileIds") Collection<String> fileIds);
+}
@@ -1,9 +1,48 @@
 package com.ftms.backend.repository;
 
 import com.ftms.backend.entity.File;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
+@Transactional(readOnly = true)
 public interface FileRepository extends JpaRepository<File, String> {
-    List<File> findByTitleContainingIgnoreCaseOrStatusContainingIgnoreCase(String title, String status);
-}
\ No newline at end of file
+    // Same columns as FileSearchIndex, so results do not depend on whether the index is ready.
+    // The query is escaped as for derived Containing queries, so % and _ match literally.
+    String MATCHES_QUERY = "(lower(f.title) like lower(concat('%', :#{escape(#query)}, '%')) escape :#{escapeCharacter()} " +
+            "or lower(f.status) like lower(concat('%', :#{escape(#query)}, '%')) escape :#{escapeCharacter()} " +
+            "or lower(f.courseCode) like lower(concat('%', :#{escape(#query)}, '%')) escape :#{escapeCharacter()} " +
+            "or lower(f.examSession) like lower(concat('%', :#{escape(#query)}, '%')) escape :#{escapeCharacter()})";
+
+    @Query("select f from File f where " + MATCHES_QUERY)
+    List<File> search(@Param("query") String query);
+
+    @Query("select f from File f where " + MATCHES_QUERY + " " +
+            "order by f.timestamp, f.id")
+    List<File> searchFirstPage(@Param("query") String query, Pageable pageable);
+
+    @Query("select f from File f where " + MATCHES_QUERY + " " +
+            "and (f.timestamp > :timestamp or (f.timestamp = :timestamp and f.id > :id)) " +
+            "order by f.timestamp, f.id")
+    List<File> searchAfter(@Param("query") String query,
+                           @Param("timestamp") LocalDateTime timestamp,
+                           @Param("id") String id,
+                           Pageable pageable);
+
+    // Cursor at a file without a timestamp: those sort first, so everything with one follows.
+    @Query("select f from File f where " + MATCHES_QUERY + " " +
+            "and (f.timestamp is not null or f.id > :id) " +
+            "order by f.timestamp, f.id")
+    List<File> searchAfterNullTimestamp(@Param("query") String query,
+                                        @Param("id") String id,
+                                        Pageable pageable);
+
+    // Files written before the event log existed; see FileHistoryService#backfill.
+    @Query("select f from File f where not exists (select e.eventId from FileEvent e where e.fileId = f.id)")
+    List<File> findWithoutEvents(Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package com.ftms.backend.repository;
+
+import com.ftms.backend.entity.FileSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+public interface FileSnapshotRepository extends JpaRepository<FileSnapshot, String> {
+    Optional<FileSnapshot> findFirstByFileIdAndTimestampLessThanEqualOrderByFileVersionDesc(String fileId, LocalDateTime at);
+}
@@ -0,0 +1,65 @@
+package com.ftms.backend.repository;
+
+import com.ftms.backend.audit.AuditJournal;
+import com.ftms.backend.entity.AuditLog;
+import com.ftms.backend.persistence.TimeOrderedUuid;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking counterpart of {@link AuditLogRepositoryCustom#findByFileId(String, LocalDateTime, LocalDateTime,
+ * com.ftms.backend.paging.KeysetCursor, boolean, int)} over R2DBC, without a limit. With the
+ * journal store the entries are read from the {@link AuditJournal} on a worker thread instead.
+ */
+@Repository
+public class ReactiveAuditLogReader {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
+
+    public Flux<AuditLog> findByFileId(String fileId, LocalDateTime from, LocalDateTime to, boolean descending) {
+        if (auditJournal != null) {
+            return Flux.defer(() -> Flux.fromIterable(
+                            auditJournal.findByFileId(fileId, from, to, null, descending, Integer.MAX_VALUE)))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        StringBuilder sql = new StringBuilder(
+                "select log_id, file_id, action, user_id, timestamp from audit_log where file_id = :fileId");
+        if (from != null) {
+            sql.append(" and timestamp >= :from");
+        }
+        if (to != null) {
+            sql.append(" and timestamp < :to");
+        }
+        String direction = descending ? " desc" : " asc";
+        sql.append(" order by timestamp").append(direction).append(", log_id").append(direction);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("fileId", fileId);
+        if (from != null) {
+            spec = spec.bind("from", from);
+        }
+        if (to != null) {
+            spec = spec.bind("to", to);
+        }
+        return spec.map((row, meta) -> toAuditLog(row)).all();
+    }
+
+    private static AuditLog toAuditLog(Row row) {
+        AuditLog log = new AuditLog();
+        log.setLogId(TimeOrderedUuid.fromBytes(row.get("log_id", byte[].class)));
+        log.setFileId(row.get("file_id", String.class));
+        log.setAction(row.get("action", String.class));
+        log.setUserId(row.get("user_id", String.class));
+        log.setTimestamp(row.get("timestamp", LocalDateTime.class));
+        return log;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ftms.backend.repository;
+
+import com.ftms.backend.entity.File;
+import com.ftms.backend.persistence.TimeOrderedUuid;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Non-blocking counterpart of {@link FileRepository#search}
+ * over R2DBC. Rows are emitted as the driver decodes them, at the subscriber's
+ * demand. Entities read here are plain objects, not managed by Hibernate.
+ */
+@Repository
+public class ReactiveFileReader {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<File> search(String query) {
+        String pattern = "%" + escapeLike(query.toLowerCase(Locale.ROOT)) + "%";
+        return databaseClient.sql("select file_id, title, status, current_officer, course_code, exam_session, " +
+                        "created_by, timestamp, version from file where lower(title) like :pattern or lower(status) like :pattern " +
+                        "or lower(course_code) like :pattern or lower(exam_session) like :pattern")
+                .bind("pattern", pattern)
+                .map((row, meta) -> toFile(row))
+                .all();
+    }
+
+    private static File toFile(Row row) {
+        File file = new File();
+        file.setId(TimeOrderedUuid.fromBytes(row.get("file_id", byte[].class)));
+        file.setTitle(row.get("title", String.class));
+        file.setStatus(row.get("status", String.class));
+        file.setCurrentOfficer(row.get("current_officer", String.class));
+        file.setCourseCode(row.get("course_code", String.class));
+        file.setExamSession(row.get("exam_session", String.class));
+        file.setCreatedBy(row.get("created_by", String.class));
+        file.setTimestamp(row.get("timestamp", LocalDateTime.class));
+        Long version = row.get("version", Long.class);
+        file.setVersion(version == null ? 0 : version);
+        return file;
+    }
+
+    // Same escaping Spring Data applies to Containing queries.
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,12 +1,31 @@
 package com.ftms.backend.repository;
 
+import com.ftms.backend.dto.UserSummary;
 import com.ftms.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, String> {
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, String>, UserRepositoryCustom {
+    // Users change rarely, so these lookups go through the query cache; any write to
+    // the user table invalidates the cached results.
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<User> findByUsername(String username);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<User> findByRoleIn(List<String> roles);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<UserSummary> findAllProjectedBy();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<UserSummary> findProjectedByRoleIn(List<String> roles);
+
+    // Not query-cached: UserDirectory reloads with this to see writes made by other instances.
+    List<UserSummary> findSummariesBy();
+}
@@ -0,0 +1,13 @@
+package com.ftms.backend.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+    /**
+     * Selects only the given User attributes, optionally restricted to users with
+     * one of {@code roles}. Each row is returned as attribute name to value, in
+     * the order of {@code fields}.
+     */
+    List<Map<String, Object>> findFields(List<String> fields, List<String> roles);
+}
@@ -0,0 +1,65 @@
+package com.ftms.backend.routing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which users wrote recently so that their reads keep going to the
+ * primary for {@code ftms.datasource.read-your-writes-ms} afterwards, instead of
+ * to a replica that may not have applied the write yet.
+ *
+ * The user of the current request is bound to the request thread by
+ * {@link ReadYourWritesInterceptor}.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private static final ThreadLocal<String> currentUser = new ThreadLocal<>();
+
+    @Value("${ftms.datasource.read-your-writes-ms:5000}")
+    private long windowMs;
+
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public void bind(String userId) {
+        currentUser.set(userId);
+    }
+
+    public void unbind() {
+        currentUser.remove();
+    }
+
+    /** Starts (or extends) the window in which this user's reads go to the primary. */
+    public void recordWrite(String userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        pinnedUntil.put(userId, now + windowMs);
+        if (pinnedUntil.size() > CLEANUP_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until < now);
+        }
+    }
+
+    /** True if the user bound to this thread wrote within the window. */
+    public boolean isCurrentUserPinned() {
+        String userId = currentUser.get();
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            pinnedUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+}
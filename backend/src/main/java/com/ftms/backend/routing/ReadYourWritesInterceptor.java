@@ -0,0 +1,57 @@
+package com.ftms.backend.routing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Binds the {@code User-Id} of each request for {@link ReadYourWrites} and
+ * records a write for every POST, PUT, PATCH or DELETE. The write is recorded
+ * both before the handler runs, so reads made while the write is in progress
+ * go to the primary, and again after it completes, so the window starts once
+ * the write has committed.
+ */
+@Component
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String userId = request.getHeader("User-Id");
+        readYourWrites.bind(userId);
+        if (isWrite(request)) {
+            readYourWrites.recordWrite(userId);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (isWrite(request)) {
+            readYourWrites.recordWrite(request.getHeader("User-Id"));
+        }
+        readYourWrites.unbind();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        readYourWrites.unbind();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        switch (request.getMethod()) {
+            case "POST":
+            case "PUT":
+            case "PATCH":
+            case "DELETE":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
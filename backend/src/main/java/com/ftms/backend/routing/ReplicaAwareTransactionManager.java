@@ -0,0 +1,50 @@
+package com.ftms.backend.routing;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA transaction manager for replica routing. A read-only transaction that
+ * will be served by a replica may see data that is slightly behind the primary,
+ * so its session only reads from the second-level and query caches and never
+ * puts into them; otherwise a lagging replica could repopulate the shared
+ * cache with rows a user has already changed.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaAwareTransactionManager(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly() && routingDataSource.routesReadsToReplica()) {
+            Session session = currentSession();
+            if (session != null) {
+                session.setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        // The session may outlive the transaction (open-in-view), so restore the default mode.
+        Session session = currentSession();
+        if (session != null && session.isOpen() && session.getCacheMode() == CacheMode.GET) {
+            session.setCacheMode(CacheMode.NORMAL);
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    private Session currentSession() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        return holder == null ? null : holder.getEntityManager().unwrap(Session.class);
+    }
+}
@@ -0,0 +1,198 @@
+package com.ftms.backend.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ *
+ * The lookup key is decided when a connection is first needed, so this must be
+ * wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy};
+ * by then the transaction's read-only flag is known. Replicas are used round
+ * robin. A background probe runs {@code lagQuery} against every replica and
+ * takes it out of rotation while it is unreachable or more than
+ * {@code maxLagSeconds} behind; when no replica is usable, reads go to the
+ * primary. Users who wrote recently are kept on the primary as well (see
+ * {@link ReadYourWrites}).
+ *
+ * The lag query may be MySQL's {@code SHOW REPLICA STATUS} (the
+ * Seconds_Behind_Source or Seconds_Behind_Master column is read) or any query
+ * returning the lag in seconds in its first column. A replica whose query
+ * returns no row, or a null lag, is treated as unhealthy, since it is not
+ * replicating and may be arbitrarily far behind. When the query is empty,
+ * replicas are only checked for connectivity.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadYourWrites readYourWrites;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final long probeIntervalMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService prober;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, ReadYourWrites readYourWrites,
+                                    String lagQuery, long maxLagSeconds, long probeIntervalMs) {
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+        this.maxLagSeconds = maxLagSeconds;
+        this.probeIntervalMs = probeIntervalMs;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + (i + 1), replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        probe();
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(this::probe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            close(replica.dataSource);
+        }
+        close(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readYourWrites.isCurrentUserPinned()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (replica.usable) {
+                return replica.key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /** True if a read-only transaction started now on this thread would go to a replica. */
+    public boolean routesReadsToReplica() {
+        if (readYourWrites.isCurrentUserPinned()) {
+            return false;
+        }
+        for (Replica replica : replicas) {
+            if (replica.usable) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void probe() {
+        for (Replica replica : replicas) {
+            boolean usable;
+            Long lag = null;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (lagQuery.isEmpty()) {
+                    usable = connection.isValid(2);
+                    lag = 0L;
+                } else {
+                    lag = queryLag(connection);
+                    usable = lag != null && lag <= maxLagSeconds;
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Replica probe failed for {}", replica.key, e);
+                usable = false;
+            }
+            if (usable != replica.usable) {
+                if (usable) {
+                    log.info("Replica {} is back in rotation (lag {}s)", replica.key, lag);
+                } else {
+                    log.warn("Replica {} taken out of rotation (lag {}, max {}s)", replica.key,
+                            lag == null ? "unknown" : lag + "s", maxLagSeconds);
+                }
+                replica.usable = usable;
+            }
+        }
+    }
+
+    // Null means the lag is unknown: no status row, or replication is stopped.
+    private Long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                // Not replicating at all (replication reset or never set up): its data may be arbitrarily old.
+                return null;
+            }
+            ResultSetMetaData meta = rs.getMetaData();
+            int column = 1;
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String label = meta.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                    column = i;
+                    break;
+                }
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    private static final class Replica {
+        final String key;
+        final DataSource dataSource;
+        volatile boolean usable;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.ftms.backend.search;
+
+import com.ftms.backend.entity.File;
+import com.ftms.backend.event.FileChangedEvent;
+import com.ftms.backend.paging.CursorPage;
+import com.ftms.backend.paging.KeysetCursor;
+import com.ftms.backend.repository.FileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory trigram index over the searchable columns of {@link File}
+ * (title, status, courseCode, examSession).
+ *
+ * Queries of three or more characters intersect the posting lists of their
+ * trigrams and then verify the substring match, so results are identical to
+ * a case-insensitive "containing" search over those columns. Shorter queries
+ * fall back to a scan of the in-memory documents.
+ *
+ * Documents are also kept ordered by (timestamp, id) so that paginated
+ * searches can seek straight to a cursor instead of skipping rows.
+ *
+ * A rebuild reads all files from the primary database, never a replica that may
+ * not have caught up, and without holding the index lock. Changes indexed
+ * while that query runs are recorded and applied again on top of the rebuilt
+ * index, since the query may have read the rows before they changed.
+ */
+@Component
+public class FileSearchIndex {
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, File> documents = new HashMap<>();
+    private final Map<String, String> searchText = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    private final NavigableMap<KeysetCursor, String> order = new TreeMap<>();
+    private volatile boolean ready = false;
+    // Files indexed while rebuild() reads from the database; null when no rebuild is running
+    private Map<String, File> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<File> files;
+        try {
+            // A read-write transaction, so the query goes to the primary rather than a lagging replica
+            files = transactionTemplate.execute(status -> fileRepository.findAll());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            searchText.clear();
+            postings.clear();
+            order.clear();
+            for (File file : files) {
+                add(file);
+            }
+            for (File changed : changedDuringRebuild.values()) {
+                File loaded = documents.get(changed.getId());
+                if (loaded == null || loaded.getVersion() <= changed.getVersion()) {
+                    remove(changed.getId());
+                    add(changed);
+                }
+            }
+            changedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Cached results may have come from the database fallback or an older index.
+        searchResultCache.invalidateAll();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Runs before other listeners, so those that evict search results (SearchResultCache)
+    // do so only once the index already returns the new state.
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onFileChanged(FileChangedEvent event) {
+        index(event.getCurrent());
+    }
+
+    /** Adds the file to the index, replacing any previous version with the same id. */
+    public void index(File file) {
+        if (file == null || file.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(file.getId());
+            add(file);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(file.getId(), copy(file));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<File> search(String query) {
+        return search(query, FileSearchIndex::copy);
+    }
+
+    /**
+     * Like {@link #search(String)}, but returns {@code mapper} applied to each match
+     * instead of a copy of the whole file. The mapper runs under the index lock and
+     * must not keep or modify the file it is given.
+     */
+    public <R> List<R> search(String query, Function<File, R> mapper) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<R> result = new ArrayList<>();
+            for (String id : candidates(needle)) {
+                if (searchText.get(id).contains(needle)) {
+                    result.add(mapper.apply(documents.get(id)));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code pageSize} matches ordered by (timestamp, id), starting
+     * strictly after {@code after} (or from the beginning when it is null).
+     */
+    public CursorPage<File> searchPage(String query, KeysetCursor after, int pageSize) {
+        return searchPage(query, after, pageSize, FileSearchIndex::copy);
+    }
+
+    /** Paged variant of {@link #search(String, Function)}. */
+    public <R> CursorPage<R> searchPage(String query, KeysetCursor after, int pageSize, Function<File, R> mapper) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> candidates = candidates(needle);
+            List<KeysetCursor> keys = candidates == documents.keySet()
+                    ? walkOrdered(needle, after, pageSize + 1)
+                    : selectSmallest(candidates, needle, after, pageSize + 1);
+
+            boolean hasMore = keys.size() > pageSize;
+            List<R> items = new ArrayList<>(Math.min(keys.size(), pageSize));
+            for (int i = 0; i < keys.size() && i < pageSize; i++) {
+                items.add(mapper.apply(documents.get(keys.get(i).getId())));
+            }
+            String next = hasMore ? keys.get(pageSize - 1).encode() : null;
+            return new CursorPage<>(items, next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Short queries have no trigram to narrow on, so walk the global order from the cursor.
+    private List<KeysetCursor> walkOrdered(String needle, KeysetCursor after, int limit) {
+        NavigableMap<KeysetCursor, String> tail = after == null ? order : order.tailMap(after, false);
+        List<KeysetCursor> keys = new ArrayList<>(limit);
+        for (Map.Entry<KeysetCursor, String> entry : tail.entrySet()) {
+            if (searchText.get(entry.getValue()).contains(needle)) {
+                keys.add(entry.getKey());
+                if (keys.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return keys;
+    }
+
+    // Top-k selection over the candidate set; cost depends on the number of matches, not on the page depth.
+    private List<KeysetCursor> selectSmallest(Set<String> candidates, String needle, KeysetCursor after, int limit) {
+        PriorityQueue<KeysetCursor> heap = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        for (String id : candidates) {
+            if (!searchText.get(id).contains(needle)) {
+                continue;
+            }
+            KeysetCursor key = keyOf(documents.get(id));
+            if (after != null && key.compareTo(after) <= 0) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(key);
+            } else if (key.compareTo(heap.peek()) < 0) {
+                heap.poll();
+                heap.add(key);
+            }
+        }
+        List<KeysetCursor> keys = new ArrayList<>(heap);
+        Collections.sort(keys);
+        return keys;
+    }
+
+    private Set<String> candidates(String needle) {
+        if (needle.length() < GRAM) {
+            return documents.keySet();
+        }
+        Set<String> grams = grams(needle);
+        Set<String> smallest = null;
+        for (String gram : grams) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        Set<String> result = new HashSet<>(smallest);
+        for (String gram : grams) {
+            Set<String> ids = postings.get(gram);
+            if (ids != smallest) {
+                result.retainAll(ids);
+            }
+        }
+        return result;
+    }
+
+    private void add(File file) {
+        String id = file.getId();
+        String text = searchableText(file);
+        File stored = copy(file);
+        documents.put(id, stored);
+        searchText.put(id, text);
+        order.put(keyOf(stored), id);
+        for (String gram : grams(text)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(String id) {
+        String text = searchText.remove(id);
+        File previous = documents.remove(id);
+        if (previous != null) {
+            order.remove(keyOf(previous));
+        }
+        if (text == null) {
+            return;
+        }
+        for (String gram : grams(text)) {
+            Set<String> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    // Fields are joined with a separator that never appears in a normalized query,
+    // so a match cannot span two columns.
+    private static String searchableText(File file) {
+        return normalize(file.getTitle()) + '\u0000'
+                + normalize(file.getStatus()) + '\u0000'
+                + normalize(file.getCourseCode()) + '\u0000'
+                + normalize(file.getExamSession());
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            if (gram.indexOf('\u0000') < 0) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    /** Whether a search for the normalized {@code needle} matches {@code file}. */
+    static boolean matches(File file, String needle) {
+        return file != null && searchableText(file).contains(needle);
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static KeysetCursor keyOf(File file) {
+        return new KeysetCursor(file.getTimestamp(), file.getId());
+    }
+
+    private static File copy(File file) {
+        File copy = new File(file.getId(), file.getTitle(), file.getStatus(), file.getCurrentOfficer(),
+                file.getCourseCode(), file.getExamSession(), file.getCreatedBy(), file.getTimestamp());
+        copy.setVersion(file.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ftms.backend.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ftms.backend.routing.ReadYourWrites;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs identical concurrent searches once. The first request for a key executes
+ * the search and serializes a successful result in the key's format (JSON, CBOR
+ * or Smile, with the mapper MVC itself would use); requests for the same
+ * key that arrive while it runs, or within {@code ftms.search.coalesce.grace-ms}
+ * after it finished, get the same bytes. A failed search is not kept, so the
+ * next request runs it again.
+ *
+ * Users who wrote recently (see {@link ReadYourWrites}) always run their own
+ * search, since a shared one may have started before their write committed.
+ */
+@Component
+public class SearchCoalescer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HttpMessageConverters httpMessageConverters;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Value("${ftms.search.coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ftms.search.coalesce.grace-ms:250}")
+    private long graceMs;
+
+    private final ConcurrentHashMap<SearchKey, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder graceHits = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    private static final class Flight {
+        final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+        volatile long completedAt; // System.nanoTime(); 0 while running
+    }
+
+    /**
+     * Returns the response for {@code key}, running {@code search} only if no
+     * identical search is running or has just finished. If this call runs the
+     * search itself, {@code onExecuted} is given the shared response before any
+     * waiting request sees it.
+     */
+    public ResponseEntity<?> execute(SearchKey key, Supplier<ResponseEntity<?>> search,
+                                     Consumer<ResponseEntity<?>> onExecuted) {
+        if (!enabled || readYourWrites.isCurrentUserPinned()) {
+            bypassed.increment();
+            return search.get();
+        }
+        while (true) {
+            Flight flight = new Flight();
+            Flight existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, search, onExecuted);
+            }
+            long completedAt = existing.completedAt;
+            if (completedAt != 0 && System.nanoTime() - completedAt > TimeUnit.MILLISECONDS.toNanos(graceMs)) {
+                flights.remove(key, existing);
+                continue;
+            }
+            if (completedAt != 0) {
+                graceHits.increment();
+            } else {
+                joined.increment();
+            }
+            return await(existing);
+        }
+    }
+
+    private ResponseEntity<?> lead(SearchKey key, Flight flight, Supplier<ResponseEntity<?>> search,
+                                   Consumer<ResponseEntity<?>> onExecuted) {
+        executed.increment();
+        ResponseEntity<?> response;
+        try {
+            response = serialize(search.get(), key.getMediaType());
+            onExecuted.accept(response);
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        flight.completedAt = System.nanoTime();
+        if (graceMs > 0 && response.getStatusCode().is2xxSuccessful()) {
+            CompletableFuture.delayedExecutor(graceMs, TimeUnit.MILLISECONDS).execute(() -> flights.remove(key, flight));
+        } else {
+            flights.remove(key, flight);
+        }
+        flight.result.complete(response);
+        return response;
+    }
+
+    private static ResponseEntity<?> await(Flight flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared search", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Shared search failed", e.getCause());
+        }
+    }
+
+    private ResponseEntity<?> serialize(ResponseEntity<?> response, MediaType mediaType) {
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            return response;
+        }
+        try {
+            byte[] body = mapperFor(mediaType).writeValueAsBytes(response.getBody());
+            return ResponseEntity.status(response.getStatusCode()).contentType(mediaType).body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize search result", e);
+        }
+    }
+
+    private ObjectMapper mapperFor(MediaType mediaType) {
+        if (MediaType.APPLICATION_JSON.equals(mediaType)) {
+            return objectMapper;
+        }
+        for (HttpMessageConverter<?> converter : httpMessageConverters.getConverters()) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter
+                    && converter.getSupportedMediaTypes().contains(mediaType)) {
+                return ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper();
+            }
+        }
+        throw new IllegalStateException("No Jackson converter for " + mediaType);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executed", executed.sum());
+        stats.put("joinedInFlight", joined.sum());
+        stats.put("servedInGrace", graceHits.sum());
+        stats.put("bypassed", bypassed.sum());
+        stats.put("inFlightOrGrace", flights.size());
+        return stats;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ftms.backend.search;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identifies a search request for {@link SearchCoalescer} and {@link SearchResultCache}.
+ * The query is normalized the way {@link FileSearchIndex} compares it (trimmed and
+ * lower-cased), so queries that differ only in case or surrounding spaces share a key.
+ * The {@code Accept} header is reduced to the one format the result is served in.
+ */
+public final class SearchKey {
+    // In order of preference when the client accepts several equally
+    private static final List<MediaType> FORMATS = Arrays.asList(
+            MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+
+    private final String query;
+    private final Integer pageSize;
+    private final String cursor;
+    private final List<String> fields;
+    private final MediaType mediaType;
+
+    public SearchKey(String query, Integer pageSize, String cursor, List<String> fields, String accept) {
+        this.query = FileSearchIndex.normalize(query);
+        this.pageSize = pageSize;
+        this.cursor = cursor;
+        this.fields = fields;
+        this.mediaType = negotiate(accept);
+    }
+
+    public String getQuery() { return query; }
+    public Integer getPageSize() { return pageSize; }
+    public String getCursor() { return cursor; }
+    public List<String> getFields() { return fields; }
+    public MediaType getMediaType() { return mediaType; }
+
+    private static MediaType negotiate(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType format : FORMATS) {
+                if (type.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchKey)) return false;
+        SearchKey other = (SearchKey) o;
+        return query.equals(other.query) && Objects.equals(pageSize, other.pageSize)
+                && Objects.equals(cursor, other.cursor) && Objects.equals(fields, other.fields)
+                && mediaType.equals(other.mediaType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, pageSize, cursor, fields, mediaType);
+    }
+}
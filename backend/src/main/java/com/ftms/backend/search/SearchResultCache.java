@@ -0,0 +1,154 @@
+package com.ftms.backend.search;
+
+import com.ftms.backend.entity.File;
+import com.ftms.backend.event.FileChangedEvent;
+import com.ftms.backend.routing.ReadYourWrites;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the serialized responses of recent searches, at most
+ * {@code ftms.search.cache.max-entries} of them, in front of {@link SearchCoalescer}.
+ *
+ * A {@link FileChangedEvent} evicts only the entries whose normalized query is
+ * contained in one of the searchable columns of the file before or after the
+ * change, the same test {@link FileSearchIndex} applies; other entries cannot
+ * have gained or lost that file. A search that was running while any file
+ * changed is not cached, since it may have read the state from before the
+ * change. {@link #invalidateAll} bumps a generation counter that every entry
+ * is checked against, for changes that cannot be attributed to single files,
+ * such as an index rebuild. Entries also expire after
+ * {@code ftms.search.cache.ttl-ms}, which bounds staleness after changes made
+ * outside this application.
+ */
+@Component
+public class SearchResultCache {
+
+    @Autowired
+    private SearchCoalescer searchCoalescer;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Value("${ftms.search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ftms.search.cache.max-entries:1000}")
+    private long maxEntries;
+
+    @Value("${ftms.search.cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    private Cache<SearchKey, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+    // Bumped by every change; a search stores its result only if it did not move.
+    private final AtomicLong changes = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder skippedStale = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private static final class Entry {
+        final ResponseEntity<?> response;
+        final long generation;
+
+        Entry(ResponseEntity<?> response, long generation) {
+            this.response = response;
+            this.generation = generation;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    /** Returns the cached response for {@code key}, or runs {@code search} through the coalescer. */
+    public ResponseEntity<?> execute(SearchKey key, Supplier<ResponseEntity<?>> search) {
+        if (!enabled || readYourWrites.isCurrentUserPinned()) {
+            bypassed.increment();
+            return searchCoalescer.execute(key, search, response -> { });
+        }
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.generation == generation.get()) {
+            hits.increment();
+            return entry.response;
+        }
+        misses.increment();
+        long changesBefore = changes.get();
+        long generationBefore = generation.get();
+        return searchCoalescer.execute(key, search, response -> store(key, response, changesBefore, generationBefore));
+    }
+
+    private void store(SearchKey key, ResponseEntity<?> response, long changesBefore, long generationBefore) {
+        if (!response.getStatusCode().is2xxSuccessful() || !(response.getBody() instanceof byte[])) {
+            return;
+        }
+        if (changes.get() != changesBefore) {
+            skippedStale.increment();
+            return;
+        }
+        cache.put(key, new Entry(response, generationBefore));
+        stored.increment();
+        // A change that landed between the check and the put would have missed this entry.
+        if (changes.get() != changesBefore) {
+            cache.invalidate(key);
+        }
+    }
+
+    @EventListener
+    public void onFileChanged(FileChangedEvent event) {
+        changes.incrementAndGet();
+        File previous = event.getPrevious();
+        File current = event.getCurrent();
+        for (SearchKey key : cache.asMap().keySet()) {
+            if (FileSearchIndex.matches(previous, key.getQuery()) || FileSearchIndex.matches(current, key.getQuery())) {
+                cache.invalidate(key);
+                evicted.increment();
+            }
+        }
+    }
+
+    /** Drops every cached result, including those of searches still running. */
+    public void invalidateAll() {
+        changes.incrementAndGet();
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", cache.estimatedSize());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("bypassed", bypassed.sum());
+        stats.put("stored", stored.sum());
+        stats.put("skippedStale", skippedStale.sum());
+        stats.put("evictedByChange", evicted.sum());
+        stats.put("generation", generation.get());
+        return stats;
+    }
+}
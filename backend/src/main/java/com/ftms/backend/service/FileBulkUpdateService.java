@@ -0,0 +1,133 @@
+package com.ftms.backend.service;
+
+import com.ftms.backend.dto.BulkItemResult;
+import com.ftms.backend.entity.File;
+import com.ftms.backend.event.FileChangedEvent;
+import com.ftms.backend.history.FileHistoryService;
+import com.ftms.backend.persistence.TimeOrderedUuid;
+import com.ftms.backend.repository.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Applies one partial update to many files. Ids are processed in chunks of
+ * {@code ftms.bulk.chunk-size}, one transaction per chunk: the chunk's files are
+ * read with a single IN query and written back with
+ * {@link FileHistoryService#updateAll}. If a chunk fails, for instance because
+ * one of its files was changed concurrently, its ids are retried one per
+ * transaction so that only the affected items fail.
+ */
+@Service
+public class FileBulkUpdateService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileBulkUpdateService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FileHistoryService fileHistoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${ftms.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    /** Returns one result per id, in request order; the index is the id's position. */
+    public List<BulkItemResult> updateAll(List<String> ids, File updates, String userId) {
+        BulkItemResult[] results = new BulkItemResult[ids.size()];
+        List<Integer> valid = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (TimeOrderedUuid.isValid(ids.get(i))) {
+                valid.add(i);
+            } else {
+                results[i] = new BulkItemResult(i, ids.get(i), BulkItemResult.NOT_FOUND, "No file with this id");
+            }
+        }
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            try {
+                apply(ids, chunk, updates, userId, results);
+            } catch (RuntimeException chunkFailure) {
+                log.warn("Bulk update chunk of {} failed, retrying items individually", chunk.size(), chunkFailure);
+                for (int i : chunk) {
+                    try {
+                        apply(ids, Collections.singletonList(i), updates, userId, results);
+                    } catch (ObjectOptimisticLockingFailureException e) {
+                        results[i] = new BulkItemResult(i, ids.get(i), BulkItemResult.FAILED, "File was modified concurrently");
+                    } catch (RuntimeException e) {
+                        results[i] = new BulkItemResult(i, ids.get(i), BulkItemResult.FAILED, e.getMessage());
+                    }
+                }
+            }
+        }
+        List<BulkItemResult> list = new ArrayList<>(results.length);
+        Collections.addAll(list, results);
+        return list;
+    }
+
+    // Fills in the results for the ids at positions chunk and publishes a FileChangedEvent per changed file after commit.
+    private void apply(List<String> ids, List<Integer> chunk, File updates, String userId, BulkItemResult[] results) {
+        Map<File, File> previous = new IdentityHashMap<>();
+        List<File> changed = transactionTemplate.execute(status -> {
+            Map<String, Integer> distinct = new LinkedHashMap<>();
+            for (int i : chunk) {
+                distinct.putIfAbsent(ids.get(i).toLowerCase(Locale.ROOT), i);
+            }
+            Map<String, File> files = new HashMap<>(distinct.size() * 2);
+            for (File file : fileRepository.findAllById(distinct.keySet())) {
+                files.put(file.getId(), file);
+                previous.put(file, copy(file));
+            }
+            List<File> updated = fileHistoryService.updateAll(new ArrayList<>(files.values()), updates, userId);
+            for (int i : chunk) {
+                File file = files.get(ids.get(i).toLowerCase(Locale.ROOT));
+                if (file == null) {
+                    results[i] = new BulkItemResult(i, ids.get(i), BulkItemResult.NOT_FOUND, "No file with this id");
+                } else if (file.getVersion() != previous.get(file).getVersion() && distinct.get(file.getId()) == i) {
+                    results[i] = new BulkItemResult(i, file.getId(), BulkItemResult.UPDATED, null);
+                } else {
+                    results[i] = new BulkItemResult(i, file.getId(), BulkItemResult.UNCHANGED, null);
+                }
+            }
+            // With open-in-view the request's persistence context outlives the chunk.
+            entityManager.flush();
+            entityManager.clear();
+            return updated;
+        });
+        for (File file : changed) {
+            eventPublisher.publishEvent(new FileChangedEvent(previous.get(file), file, userId));
+        }
+    }
+
+    private static File copy(File file) {
+        File copy = new File(file.getId(), file.getTitle(), file.getStatus(), file.getCurrentOfficer(),
+                file.getCourseCode(), file.getExamSession(), file.getCreatedBy(), file.getTimestamp());
+        copy.setVersion(file.getVersion());
+        return copy;
+    }
+}
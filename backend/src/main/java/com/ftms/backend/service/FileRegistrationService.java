@@ -0,0 +1,126 @@
+package com.ftms.backend.service;
+
+import com.ftms.backend.dto.BulkItemResult;
+import com.ftms.backend.entity.File;
+import com.ftms.backend.event.FileChangedEvent;
+import com.ftms.backend.history.FileProjector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registers many files at once. Valid items are persisted in chunks of
+ * {@code ftms.bulk.chunk-size}, one transaction per chunk, so Hibernate can
+ * send them as JDBC batch inserts (see hibernate.jdbc.batch_size). If a chunk
+ * fails, its items are retried one per transaction so that a single bad row
+ * only fails itself. Each file's CREATED {@link com.ftms.backend.entity.FileEvent}
+ * is written in the same transaction.
+ */
+@Service
+public class FileRegistrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileRegistrationService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${ftms.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /** Returns null when the file can be registered, otherwise the reason it cannot. */
+    public static String validate(File file) {
+        if (file == null) {
+            return "File payload is missing";
+        }
+        if (file.getTitle() == null || file.getTitle().trim().isEmpty()) {
+            return "title is required";
+        }
+        if (file.getStatus() == null || file.getStatus().trim().isEmpty()) {
+            return "status is required";
+        }
+        if (file.getCurrentOfficer() == null || file.getCurrentOfficer().trim().isEmpty()) {
+            return "currentOfficer is required";
+        }
+        return null;
+    }
+
+    /**
+     * Registers {@code files}, whose first element is at position {@code firstIndex}
+     * of the overall request, and returns one result per file in the same order.
+     */
+    public List<BulkItemResult> registerAll(List<File> files, int firstIndex, String userId) {
+        BulkItemResult[] results = new BulkItemResult[files.size()];
+        List<Integer> valid = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            String error = validate(files.get(i));
+            if (error != null) {
+                results[i] = new BulkItemResult(firstIndex + i, null, BulkItemResult.INVALID, error);
+            } else {
+                valid.add(i);
+            }
+        }
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            try {
+                persist(files, chunk, userId);
+                for (int i : chunk) {
+                    results[i] = new BulkItemResult(firstIndex + i, files.get(i).getId(), BulkItemResult.CREATED, null);
+                }
+            } catch (RuntimeException chunkFailure) {
+                log.warn("Bulk registration chunk of {} failed, retrying items individually", chunk.size(), chunkFailure);
+                for (int i : chunk) {
+                    try {
+                        persist(files, Collections.singletonList(i), userId);
+                        results[i] = new BulkItemResult(firstIndex + i, files.get(i).getId(), BulkItemResult.CREATED, null);
+                    } catch (RuntimeException e) {
+                        results[i] = new BulkItemResult(firstIndex + i, null, BulkItemResult.FAILED, e.getMessage());
+                    }
+                }
+            }
+        }
+        List<BulkItemResult> list = new ArrayList<>(results.length);
+        Collections.addAll(list, results);
+        return list;
+    }
+
+    private void persist(List<File> files, List<Integer> chunk, String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i : chunk) {
+                File file = files.get(i);
+                file.setId(null); // let the generator assign it so persist() does not treat the row as detached
+                file.setVersion(0);
+                file.setCreatedBy(userId);
+                file.setTimestamp(now);
+                entityManager.persist(file);
+                entityManager.persist(FileProjector.created(file, userId));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        for (int i : chunk) {
+            eventPublisher.publishEvent(new FileChangedEvent(null, files.get(i), userId));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+-- Converts the VARCHAR(36) primary keys of file, user and audit_log to BINARY(16).
+-- Run once against MySQL with the backend stopped, before starting a build that
+-- uses TimeOrderedUuidGenerator / UuidBinaryType. Existing random (v4) ids are
+-- kept as they are; only rows created afterwards get time-ordered ids.
+
+ALTER TABLE file ADD COLUMN file_id_bin BINARY(16) NULL;
+UPDATE file SET file_id_bin = UNHEX(REPLACE(file_id, '-', ''));
+ALTER TABLE file
+    DROP PRIMARY KEY,
+    DROP COLUMN file_id,
+    CHANGE COLUMN file_id_bin file_id BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (file_id);
+
+ALTER TABLE user ADD COLUMN user_id_bin BINARY(16) NULL;
+UPDATE user SET user_id_bin = UNHEX(REPLACE(user_id, '-', ''));
+ALTER TABLE user
+    DROP PRIMARY KEY,
+    DROP COLUMN user_id,
+    CHANGE COLUMN user_id_bin user_id BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (user_id);
+
+ALTER TABLE audit_log ADD COLUMN log_id_bin BINARY(16) NULL;
+UPDATE audit_log SET log_id_bin = UNHEX(REPLACE(log_id, '-', ''));
+ALTER TABLE audit_log
+    DROP PRIMARY KEY,
+    DROP COLUMN log_id,
+    CHANGE COLUMN log_id_bin log_id BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (log_id);
+
+-- Rebuild the clustered indexes so the converted tables start out compact.
+OPTIMIZE TABLE file, user, audit_log;
@@ -1,6 +1,5 @@
 package com.ftms.desktop;
 
-import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -15,12 +14,12 @@ import okhttp3.*;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class AuditView extends VBox {
     private final OkHttpClient client = new OkHttpClient();
-    private final Gson gson = GsonConfig.getGson();
 
     // UI Elements
     private final TextField fileIdField;
@@ -131,15 +130,16 @@ public class AuditView extends VBox {
                 Request request = new Request.Builder()
                         .url("http://localhost:8080/api/audit/" + fileId)
                         .get()
-                        .header("User-Id", currentUserId)
+                        .header("Authorization", AuthSession.authorization())
+                        .header("Accept", WireFormat.ACCEPT)
                         .build();
 
                 try (Response response = client.newCall(request).execute()) { // Use try-with-resources
-                    String responseBody = response.body() != null ? response.body().string() : "(No response body)";
+                    byte[] responseBytes = response.body() != null ? response.body().bytes() : new byte[0];
 
                     if (response.isSuccessful()) {
                         Type logListType = new TypeToken<List<AuditLog>>(){}.getType();
-                        List<AuditLog> logs = gson.fromJson(responseBody, logListType);
+                        List<AuditLog> logs = WireFormat.decode(response.header("Content-Type"), responseBytes, logListType);
 
                         Platform.runLater(() -> { // Update UI on FX thread
                             if (logs != null && !logs.isEmpty()) {
@@ -165,7 +165,7 @@ public class AuditView extends VBox {
                         });
                     } else {
                         final String errorMsg = String.format("Failed to fetch audit log: %d %s (%s)",
-                                response.code(), response.message(), responseBody);
+                                response.code(), response.message(), new String(responseBytes, StandardCharsets.UTF_8));
                         Platform.runLater(() -> {
                             resultArea.setText("Error loading audit log. See message below.");
                             setMessage(errorMsg, true);
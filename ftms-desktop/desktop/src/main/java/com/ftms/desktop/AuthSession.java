@@ -0,0 +1,63 @@
+package com.ftms.desktop;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Holds the session token from login. The token is short-lived, so it is exchanged for a new one
+// (POST /api/auth/refresh) shortly before it expires; the user only logs in again once the server
+// no longer refreshes the session.
+public class AuthSession {
+    private static final String REFRESH_URL = "http://localhost:8080/api/auth/refresh";
+    private static final long REFRESH_BEFORE_EXPIRY_MS = 60_000;
+
+    private static final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private static String token;
+    private static long expiresAt; // System.currentTimeMillis()
+
+    static synchronized void start(LoginResponse login) {
+        token = login.getToken();
+        expiresAt = System.currentTimeMillis() + login.getExpiresIn() * 1000;
+    }
+
+    static synchronized void clear() {
+        token = null;
+        expiresAt = 0;
+    }
+
+    // Value for the Authorization header of an API request; may block for a refresh, so call it off the FX thread
+    public static synchronized String authorization() {
+        if (token == null) {
+            throw new IllegalStateException("Not logged in");
+        }
+        if (System.currentTimeMillis() > expiresAt - REFRESH_BEFORE_EXPIRY_MS) {
+            refresh();
+        }
+        return "Bearer " + token;
+    }
+
+    // On failure the old token is kept; requests then fail with 401 until the user logs in again
+    private static void refresh() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(REFRESH_URL))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(10))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                start(GsonConfig.getGson().fromJson(response.body(), LoginResponse.class));
+            } else {
+                System.err.println("Session refresh refused: " + response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Session refresh failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ftms.desktop;
+
+public class BulkItemResult {
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+
+    private int index;
+    private String id;
+    private String status;
+    private String error;
+
+    public BulkItemResult() {}
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,20 @@
+package com.ftms.desktop;
+
+import java.util.List;
+
+public class BulkUpdateRequest {
+    private List<String> ids;
+    private File updates;
+
+    public BulkUpdateRequest() {}
+
+    public BulkUpdateRequest(List<String> ids, File updates) {
+        this.ids = ids;
+        this.updates = updates;
+    }
+
+    public List<String> getIds() { return ids; }
+    public void setIds(List<String> ids) { this.ids = ids; }
+    public File getUpdates() { return updates; }
+    public void setUpdates(File updates) { this.updates = updates; }
+}
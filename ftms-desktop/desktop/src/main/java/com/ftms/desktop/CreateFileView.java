@@ -144,34 +144,16 @@ public class CreateFileView extends VBox {
     }
 
     private void fetchOfficers() {
-        // (Fetch logic remains the same as previous version)
-        new Thread(() -> {
-            String currentUserId = LoginView.getUserId();
-            if (currentUserId == null) {
-                Platform.runLater(() -> errorLabel.setText("Error: Not logged in. Cannot fetch officers."));
-                return;
-            }
-            try {
-                HttpClient client = HttpClient.newHttpClient();
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create("http://localhost:8080/api/users"))
-                        .header("User-Id", currentUserId)
-                        .GET().build();
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                Platform.runLater(() -> {
-                    if (response.statusCode() == 200) {
-                        User[] users = GsonConfig.getGson().fromJson(response.body(), User[].class);
-                        List<User> userList = Arrays.asList(users);
-                        officerComboBox.getItems().setAll(userList);
-                        configureOfficerComboBoxCellFactories(); // Setup display
-                    } else {
-                        errorLabel.setText("Failed to fetch officers: " + response.body());
-                    }
-                });
-            } catch (Exception e) {
-                Platform.runLater(() -> errorLabel.setText("Error fetching officers: " + e.getMessage()));
-            }
-        }).start();
+        if (LoginView.getUserId() == null) {
+            errorLabel.setText("Error: Not logged in. Cannot fetch officers.");
+            return;
+        }
+        OfficerDirectory.load(users -> {
+            User selected = officerComboBox.getValue();
+            officerComboBox.getItems().setAll(users);
+            configureOfficerComboBoxCellFactories(); // Setup display
+            officerComboBox.setValue(OfficerDirectory.find(users, selected)); // Keep a choice made before a refresh
+        }, error -> errorLabel.setText("Error fetching officers: " + error));
     }
 
     private void configureOfficerComboBoxCellFactories() {
@@ -240,7 +222,7 @@ public class CreateFileView extends VBox {
                 HttpRequest request = HttpRequest.newBuilder()
                         .uri(URI.create("http://localhost:8080/api/files/register"))
                         .header("Content-Type", "application/json")
-                        .header("User-Id", currentUserId)
+                        .header("Authorization", AuthSession.authorization())
                         .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                         .build();
                 HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
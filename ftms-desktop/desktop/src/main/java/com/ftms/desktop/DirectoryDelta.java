@@ -0,0 +1,23 @@
+package com.ftms.desktop;
+
+import java.util.List;
+
+// Body of GET /api/users/directory: the whole directory when full is set, otherwise the users
+// changed and the ids removed since the version the request sent
+public class DirectoryDelta {
+    private String version;
+    private boolean full;
+    private List<User> users;
+    private List<String> removed;
+
+    public DirectoryDelta() {}
+
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+    public boolean isFull() { return full; }
+    public void setFull(boolean full) { this.full = full; }
+    public List<User> getUsers() { return users; }
+    public void setUsers(List<User> users) { this.users = users; }
+    public List<String> getRemoved() { return removed; }
+    public void setRemoved(List<String> removed) { this.removed = removed; }
+}
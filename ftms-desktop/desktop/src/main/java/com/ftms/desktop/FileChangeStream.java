@@ -0,0 +1,152 @@
+package com.ftms.desktop;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+// Reads the server's file change feed (GET /api/files/stream) on a background thread.
+// Reconnects after a failure, sending the last seen event id so the server answers with a resync,
+// and a current session token, since the one of the previous connection may have expired.
+public class FileChangeStream {
+    private static final String STREAM_URL = "http://localhost:8080/api/files/stream";
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    public interface Listener {
+        void onEvent(String type, String data);
+
+        // Events may have been missed; whatever is shown should be reloaded
+        void onResync();
+    }
+
+    private final Listener listener;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private volatile boolean running;
+    private volatile InputStream body;
+    private Thread thread;
+    private String lastEventId;
+
+    public FileChangeStream(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "file-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        closeBody();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                HttpRequest.Builder request = HttpRequest.newBuilder()
+                        .uri(URI.create(STREAM_URL))
+                        .header("Authorization", AuthSession.authorization())
+                        .header("Accept", "text/event-stream")
+                        .GET();
+                if (lastEventId != null) {
+                    request.header("Last-Event-ID", lastEventId);
+                }
+                HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+                body = response.body();
+                if (response.statusCode() == 200) {
+                    readEvents(body);
+                } else {
+                    System.err.println("File change stream refused: " + response.statusCode());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (running) {
+                    System.err.println("File change stream disconnected: " + e.getMessage());
+                }
+            } finally {
+                closeBody();
+            }
+            if (!running) {
+                return;
+            }
+            if (lastEventId == null) {
+                lastEventId = ""; // Any value makes the next connection start with a resync
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Parses "event:", "data:" and "id:" lines; a blank line ends an event and ":" lines are keep-alives
+    private void readEvents(InputStream in) throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String type = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (type != null) {
+                    dispatch(type, data.toString());
+                }
+                type = null;
+                data.setLength(0);
+            } else if (line.startsWith(":")) {
+                continue;
+            } else if (line.startsWith("event:")) {
+                type = field(line, 6);
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(field(line, 5));
+            } else if (line.startsWith("id:")) {
+                lastEventId = field(line, 3);
+            }
+        }
+    }
+
+    private void dispatch(String type, String data) {
+        if ("resync".equals(type)) {
+            listener.onResync();
+        } else {
+            listener.onEvent(type, data);
+        }
+    }
+
+    private static String field(String line, int nameLength) {
+        String value = line.substring(nameLength);
+        return value.startsWith(" ") ? value.substring(1) : value;
+    }
+
+    private void closeBody() {
+        InputStream in = body;
+        body = null;
+        if (in != null) {
+            try {
+                in.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ftms.desktop;
+
+public class FileLookupResult {
+    public static final String FOUND = "FOUND";
+
+    private String id;
+    private String status;
+    private File file;
+
+    public FileLookupResult() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public File getFile() { return file; }
+    public void setFile(File file) { this.file = file; }
+}
@@ -0,0 +1,15 @@
+package com.ftms.desktop;
+
+import java.util.List;
+
+public class FilePage {
+    private List<File> items;
+    private String nextCursor;
+
+    public FilePage() {}
+
+    public List<File> getItems() { return items; }
+    public void setItems(List<File> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
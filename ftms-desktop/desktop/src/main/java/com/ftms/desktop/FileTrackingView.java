@@ -1,8 +1,8 @@
 package com.ftms.desktop;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
@@ -17,14 +17,27 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class FileTrackingView extends VBox {
+    private static final int PAGE_SIZE = 100;
+    // Only the columns shown in the table are requested from the server
+    private static final String TABLE_FIELDS = "id,title,status,currentOfficer,courseCode,examSession";
+
     private final TextField searchField;
     private final Button searchButton;
+    private final Button loadMoreButton;
+    private final Button bulkUpdateButton;
     private final TableView<File> fileTable;
     private final Label messageLabel; // Renamed for general messages
 
+    private String activeQuery = null;
+    private String nextCursor = null;
+    private FileChangeStream changeStream; // Live updates while the view is on screen
+
     public FileTrackingView() {
         // --- UI Component Initialization ---
         Label viewTitle = new Label("File Tracking & Search");
@@ -44,6 +57,19 @@ public class FileTrackingView extends VBox {
         configureTableColumns(); // Setup table columns
         fileTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         VBox.setVgrow(fileTable, Priority.ALWAYS); // Allow table to grow vertically
+        fileTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE); // Ctrl/Shift-click to pick files for a bulk update
+
+        loadMoreButton = new Button("Load More");
+        loadMoreButton.getStyleClass().add("button");
+        loadMoreButton.setMaxWidth(Double.MAX_VALUE);
+        loadMoreButton.setDisable(true); // Enabled only while the server reports more pages
+
+        bulkUpdateButton = new Button("Bulk Reassign / Status");
+        bulkUpdateButton.getStyleClass().add("button");
+        bulkUpdateButton.setMaxWidth(Double.MAX_VALUE);
+        bulkUpdateButton.setDisable(true); // Enabled while rows are selected
+        fileTable.getSelectionModel().getSelectedItems().addListener(
+                (ListChangeListener<File>) change -> bulkUpdateButton.setDisable(fileTable.getSelectionModel().isEmpty()));
 
         messageLabel = new Label("Enter a query and click Search."); // Initial message
         messageLabel.setWrapText(true);
@@ -64,13 +90,122 @@ public class FileTrackingView extends VBox {
         // Main VBox Setup
         setSpacing(10); // Spacing between search bar, message, and table
         setPadding(new Insets(15)); // Overall padding for the view
-        getChildren().addAll(viewTitle, searchPane, messageLabel, fileTable);
+        getChildren().addAll(viewTitle, searchPane, messageLabel, fileTable, loadMoreButton, bulkUpdateButton);
 
         // Load CSS
         loadStyles();
 
         // Search button action
         searchButton.setOnAction(event -> performSearch());
+        loadMoreButton.setOnAction(event -> loadNextPage());
+        bulkUpdateButton.setOnAction(event -> bulkUpdateSelected());
+
+        // Follow the server's change feed only while this view is shown
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) {
+                startChangeStream();
+            } else {
+                stopChangeStream();
+            }
+        });
+    }
+
+    private void startChangeStream() {
+        String currentUserId = LoginView.getUserId();
+        if (currentUserId == null || changeStream != null) {
+            return;
+        }
+        changeStream = new FileChangeStream(new FileChangeStream.Listener() {
+            @Override
+            public void onEvent(String type, String data) {
+                File changed = GsonConfig.getGson().fromJson(data, File.class);
+                Platform.runLater(() -> applyChange(type, changed));
+            }
+
+            @Override
+            public void onResync() {
+                Platform.runLater(() -> reloadShownRows());
+            }
+        });
+        changeStream.start();
+    }
+
+    private void stopChangeStream() {
+        if (changeStream != null) {
+            changeStream.stop();
+            changeStream = null;
+        }
+    }
+
+    // Patches the row of an updated file in place; new files only show up on the next search
+    private void applyChange(String type, File changed) {
+        if (changed == null || changed.getId() == null) {
+            return;
+        }
+        if ("created".equals(type)) {
+            setMessage("New file registered: " + changed.getTitle() + ". Search again to include it.", false);
+            return;
+        }
+        for (File row : fileTable.getItems()) {
+            if (changed.getId().equals(row.getId())) {
+                copyShownFields(changed, row);
+                fileTable.refresh();
+                return;
+            }
+        }
+    }
+
+    // Missed events: fetch the current state of every shown row with one POST /api/files/lookup
+    private void reloadShownRows() {
+        String currentUserId = LoginView.getUserId();
+        List<String> ids = new ArrayList<>();
+        for (File row : fileTable.getItems()) {
+            ids.add(row.getId());
+        }
+        if (currentUserId == null || ids.isEmpty()) {
+            return;
+        }
+        new Thread(() -> {
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8080/api/files/lookup?fields=" + TABLE_FIELDS))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", AuthSession.authorization())
+                        .POST(HttpRequest.BodyPublishers.ofString(GsonConfig.getGson().toJson(ids)))
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    return;
+                }
+                FileLookupResult[] results = GsonConfig.getGson().fromJson(response.body(), FileLookupResult[].class);
+                Platform.runLater(() -> {
+                    Map<String, File> current = new HashMap<>();
+                    for (FileLookupResult result : results) {
+                        if (FileLookupResult.FOUND.equals(result.getStatus()) && result.getFile() != null) {
+                            current.put(result.getId(), result.getFile());
+                        }
+                    }
+                    for (File row : fileTable.getItems()) {
+                        File latest = current.get(row.getId());
+                        if (latest != null) {
+                            copyShownFields(latest, row);
+                        }
+                    }
+                    fileTable.refresh();
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> setMessage("Error refreshing files: " + e.getMessage(), true));
+            }
+        }).start();
+    }
+
+    private static void copyShownFields(File from, File to) {
+        to.setTitle(from.getTitle());
+        to.setStatus(from.getStatus());
+        to.setCurrentOfficer(from.getCurrentOfficer());
+        to.setCourseCode(from.getCourseCode());
+        to.setExamSession(from.getExamSession());
     }
 
     private void loadStyles() {
@@ -120,44 +255,259 @@ public class FileTrackingView extends VBox {
             return;
         }
 
-        String query = searchField.getText().trim();
+        activeQuery = searchField.getText().trim();
+        nextCursor = null;
         setMessage("Searching...", false); // Indicate searching
         fileTable.getItems().clear(); // Clear previous results
+        fetchPage(activeQuery, null);
+    }
+
+    // Fetches the page after the last one shown, using the cursor returned by the server
+    private void loadNextPage() {
+        String currentUserId = LoginView.getUserId();
+        if (currentUserId == null) {
+            setMessage("Error: Not logged in. Cannot perform search.", true);
+            return;
+        }
+        if (activeQuery == null || nextCursor == null) {
+            return;
+        }
+        setMessage("Loading more results...", false);
+        fetchPage(activeQuery, nextCursor);
+    }
+
+    private void fetchPage(String query, String cursor) {
+        loadMoreButton.setDisable(true);
 
         new Thread(() -> {
             try {
                 String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8.toString());
+                String url = "http://localhost:8080/api/files/search?query=" + encodedQuery + "&pageSize=" + PAGE_SIZE
+                        + "&fields=" + TABLE_FIELDS;
+                if (cursor != null) {
+                    url += "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8.toString());
+                }
                 HttpClient client = HttpClient.newHttpClient();
                 HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create("http://localhost:8080/api/files/search?query=" + encodedQuery))
-                        .header("User-Id", currentUserId)
+                        .uri(URI.create(url))
+                        .header("Authorization", AuthSession.authorization())
+                        .header("Accept", WireFormat.ACCEPT)
                         .GET().build();
 
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                // Decoded here rather than on the FX thread
+                FilePage page = response.statusCode() == 200
+                        ? WireFormat.decode(response.headers().firstValue("Content-Type").orElse(null), response.body(), FilePage.class)
+                        : null;
 
                 Platform.runLater(() -> {
+                    if (!query.equals(activeQuery)) {
+                        return; // A newer search replaced this one while it was in flight
+                    }
                     if (response.statusCode() == 200) {
-                        Gson gson = GsonConfig.getGson();
-                        TypeToken<List<File>> listType = new TypeToken<List<File>>() {};
-                        List<File> files = gson.fromJson(response.body(), listType.getType());
+                        if (page != null && page.getItems() != null) {
+                            fileTable.getItems().addAll(page.getItems());
+                        }
+                        nextCursor = page != null ? page.getNextCursor() : null;
+                        loadMoreButton.setDisable(nextCursor == null);
 
-                        if (files != null && !files.isEmpty()) {
-                            fileTable.getItems().setAll(files);
-                            setMessage("Found " + files.size() + " file(s).", false);
-                        } else {
+                        int shown = fileTable.getItems().size();
+                        if (shown == 0) {
                             setMessage("No files found matching the query.", false);
-                            // fileTable remains empty
+                        } else if (nextCursor != null) {
+                            setMessage("Showing " + shown + " file(s). Click 'Load More' for more results.", false);
+                        } else {
+                            setMessage("Found " + shown + " file(s).", false);
                         }
                     } else {
-                        setMessage("Search failed: " + response.statusCode() + " " + response.body(), true);
+                        setMessage("Search failed: " + response.statusCode() + " " + new String(response.body(), StandardCharsets.UTF_8), true);
+                        loadMoreButton.setDisable(nextCursor == null);
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    setMessage("Error during search: " + e.getMessage(), true);
+                    loadMoreButton.setDisable(nextCursor == null);
+                });
+            }
+        }).start();
+    }
+
+    // Applies one status and/or officer change to every selected row with a single PATCH /api/files/bulk
+    private void bulkUpdateSelected() {
+        String currentUserId = LoginView.getUserId();
+        String currentUserRole = LoginView.getUserRole();
+        if (currentUserId == null || currentUserRole == null) {
+            setMessage("Error: Not logged in.", true);
+            return;
+        }
+
+        List<File> selected = new ArrayList<>(fileTable.getSelectionModel().getSelectedItems());
+        List<File> targets = new ArrayList<>();
+        for (File file : selected) {
+            // Same rule as UpdateFileView: officers may only change files assigned to them
+            if (!"officer".equals(currentUserRole) || currentUserId.equals(file.getCurrentOfficer())) {
+                targets.add(file);
+            }
+        }
+        int skipped = selected.size() - targets.size();
+        if (targets.isEmpty()) {
+            setMessage("Update Denied: Officers can only update files currently assigned to them.", true);
+            return;
+        }
+
+        File updatePayload = showBulkUpdateDialog(targets.size());
+        if (updatePayload == null) {
+            return; // Cancelled or nothing chosen
+        }
+
+        List<String> ids = new ArrayList<>(targets.size());
+        for (File file : targets) {
+            ids.add(file.getId());
+        }
+        setMessage("Updating " + ids.size() + " file(s)...", false);
+        bulkUpdateButton.setDisable(true);
+
+        new Thread(() -> {
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                String jsonBody = GsonConfig.getGson().toJson(new BulkUpdateRequest(ids, updatePayload));
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8080/api/files/bulk"))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", AuthSession.authorization())
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(jsonBody))
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+                Platform.runLater(() -> {
+                    bulkUpdateButton.setDisable(fileTable.getSelectionModel().isEmpty());
+                    if (response.statusCode() != 200) {
+                        setMessage("Bulk update failed: " + response.statusCode() + " " + response.body(), true);
+                        return;
                     }
+                    BulkItemResult[] results = GsonConfig.getGson().fromJson(response.body(), BulkItemResult[].class);
+                    showBulkResults(targets, updatePayload, results, skipped);
                 });
             } catch (Exception e) {
-                Platform.runLater(() -> setMessage("Error during search: " + e.getMessage(), true));
+                Platform.runLater(() -> {
+                    bulkUpdateButton.setDisable(fileTable.getSelectionModel().isEmpty());
+                    setMessage("Error during bulk update: " + e.getMessage(), true);
+                });
             }
         }).start();
     }
 
+    // Asks for the new status and officer; returns the partial update, or null if cancelled or unchanged
+    private File showBulkUpdateDialog(int count) {
+        ComboBox<String> statusComboBox = new ComboBox<>();
+        statusComboBox.getItems().add(UpdateFileView.NO_STATUS_CHANGE);
+        statusComboBox.getItems().addAll(UpdateFileView.STATUS_OPTIONS);
+        statusComboBox.setValue(UpdateFileView.NO_STATUS_CHANGE);
+        statusComboBox.setMaxWidth(Double.MAX_VALUE);
+
+        ComboBox<User> officerComboBox = new ComboBox<>(FXCollections.observableArrayList((User) null));
+        officerComboBox.setMaxWidth(Double.MAX_VALUE);
+        ListCell<User> officerCell = new ListCell<User>() {
+            @Override
+            protected void updateItem(User item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? UpdateFileView.NO_STATUS_CHANGE : item.getUsername() + " (ID: " + item.getUserId() + ")");
+            }
+        };
+        officerComboBox.setButtonCell(officerCell);
+        officerComboBox.setCellFactory(lv -> new ListCell<User>() {
+            @Override
+            protected void updateItem(User item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : item == null ? UpdateFileView.NO_STATUS_CHANGE : item.getUsername() + " (ID: " + item.getUserId() + ")");
+            }
+        });
+        officerComboBox.setValue(null);
+        fetchOfficers(officerComboBox);
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setPadding(new Insets(10));
+        form.add(new Label("New Status:"), 0, 0);
+        form.add(statusComboBox, 1, 0);
+        form.add(new Label("New Officer:"), 0, 1);
+        form.add(officerComboBox, 1, 1);
+        GridPane.setHgrow(statusComboBox, Priority.ALWAYS);
+        GridPane.setHgrow(officerComboBox, Priority.ALWAYS);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Bulk Update");
+        dialog.setHeaderText("Apply to " + count + " selected file(s)");
+        dialog.getDialogPane().setContent(form);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return null;
+        }
+
+        File updatePayload = new File();
+        boolean changesMade = false;
+        String newStatus = statusComboBox.getValue();
+        if (newStatus != null && !newStatus.equals(UpdateFileView.NO_STATUS_CHANGE)) {
+            updatePayload.setStatus(newStatus);
+            changesMade = true;
+        }
+        if (officerComboBox.getValue() != null) {
+            updatePayload.setCurrentOfficer(officerComboBox.getValue().getUserId());
+            changesMade = true;
+        }
+        if (!changesMade) {
+            setMessage("No changes detected to update.", false);
+            return null;
+        }
+        return updatePayload;
+    }
+
+    private void fetchOfficers(ComboBox<User> officerComboBox) {
+        OfficerDirectory.load(users -> {
+            User selected = officerComboBox.getValue();
+            officerComboBox.getItems().setAll(users);
+            officerComboBox.getItems().add(0, null);
+            officerComboBox.setValue(OfficerDirectory.find(users, selected));
+        }, error -> setMessage("Error fetching officers: " + error, true));
+    }
+
+    // Updates the changed rows in place and summarises the per-file outcomes
+    private void showBulkResults(List<File> targets, File updatePayload, BulkItemResult[] results, int skipped) {
+        Map<String, File> rowsById = new HashMap<>();
+        for (File file : targets) {
+            rowsById.put(file.getId(), file);
+        }
+        int updated = 0;
+        int unchanged = 0;
+        List<String> failures = new ArrayList<>();
+        for (BulkItemResult result : results) {
+            if (BulkItemResult.UPDATED.equals(result.getStatus())) {
+                File row = rowsById.get(result.getId());
+                if (row != null) {
+                    if (updatePayload.getStatus() != null) row.setStatus(updatePayload.getStatus());
+                    if (updatePayload.getCurrentOfficer() != null) row.setCurrentOfficer(updatePayload.getCurrentOfficer());
+                }
+                updated++;
+            } else if (BulkItemResult.UNCHANGED.equals(result.getStatus())) {
+                unchanged++;
+            } else {
+                failures.add(result.getId() + ": " + result.getStatus() + (result.getError() != null ? " (" + result.getError() + ")" : ""));
+            }
+        }
+        fileTable.refresh();
+
+        StringBuilder message = new StringBuilder("Updated " + updated + " file(s)");
+        if (unchanged > 0) message.append(", ").append(unchanged).append(" already up to date");
+        if (skipped > 0) message.append(", ").append(skipped).append(" skipped (not assigned to you)");
+        if (!failures.isEmpty()) {
+            message.append(", ").append(failures.size()).append(" failed: ").append(String.join("; ", failures.subList(0, Math.min(3, failures.size()))));
+            if (failures.size() > 3) message.append("; ...");
+        }
+        setMessage(message.toString(), !failures.isEmpty());
+    }
+
     // Helper to set message and style (same as UpdateFileView)
     private void setMessage(String text, boolean isError) {
         messageLabel.setText(text);
@@ -0,0 +1,26 @@
+package com.ftms.desktop;
+
+// Body of POST /api/auth/login and /api/auth/refresh
+public class LoginResponse {
+    private String token;
+    private String tokenType;
+    private long expiresIn;
+    private String userId;
+    private String username;
+    private String role;
+
+    public LoginResponse() {}
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    public String getTokenType() { return tokenType; }
+    public void setTokenType(String tokenType) { this.tokenType = tokenType; }
+    public long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(long expiresIn) { this.expiresIn = expiresIn; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+}
@@ -131,10 +131,11 @@ public class LoginView {
                         final String responseBody = response.body() != null ? response.body().string() : null; // Read body once
 
                         if (response.isSuccessful() && responseBody != null) {
-                            User user = gson.fromJson(responseBody, User.class);
+                            LoginResponse login = gson.fromJson(responseBody, LoginResponse.class);
+                            AuthSession.start(login);
                             // Update UI on the JavaFX Application Thread
                             Platform.runLater(() -> {
-                                setLoginState(user.getUserId(), user.getRole());
+                                setLoginState(login.getUserId(), login.getRole());
                                 setResultMessage("Login successful! Welcome.", false);
                                 System.out.println("Login successful: userId=" + userId + ", role=" + userRole);
                                 mainApp.updateNavBar(); // Update nav bar based on new state
@@ -190,6 +191,9 @@ public class LoginView {
 
 
     static void setLoginState(String id, String role) {
+        if (id == null) {
+            AuthSession.clear();
+        }
         userId = id;
         userRole = role;
     }
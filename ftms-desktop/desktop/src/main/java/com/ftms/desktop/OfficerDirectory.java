@@ -0,0 +1,150 @@
+package com.ftms.desktop;
+
+import javafx.application.Platform;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Process-wide copy of the user directory (GET /api/users/directory) for the officer pickers.
+// Views get the cached copy immediately; it is then revalidated in the background, at most once
+// per REVALIDATE_AFTER_MS, by asking only for the changes since the cached version.
+public class OfficerDirectory {
+    private static final String DIRECTORY_URL = "http://localhost:8080/api/users/directory";
+    private static final long REVALIDATE_AFTER_MS = 30_000;
+
+    private static final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private static final Map<String, User> users = new HashMap<>();
+    private static String version; // null until the first answer
+    private static long checkedAt;
+    private static CompletableFuture<Boolean> revalidation;
+
+    private OfficerDirectory() {}
+
+    // Call on the FX thread. onUsers gets the cached users right away, if there are any, and again
+    // on the FX thread once a revalidation changed them. onError is only told about failures while
+    // nothing is cached; a stale copy is kept otherwise.
+    public static void load(Consumer<List<User>> onUsers, Consumer<String> onError) {
+        List<User> cached = snapshot();
+        if (cached != null) {
+            onUsers.accept(cached);
+        }
+        revalidate().whenComplete((changed, error) -> {
+            if (error != null) {
+                String message = error.getCause() != null ? error.getCause().getMessage() : error.getMessage();
+                if (cached == null) {
+                    Platform.runLater(() -> onError.accept(message));
+                } else {
+                    System.err.println("Officer directory revalidation failed: " + message);
+                }
+            } else if (changed || cached == null) {
+                List<User> current = snapshot();
+                Platform.runLater(() -> onUsers.accept(current != null ? current : new ArrayList<>()));
+            }
+        });
+    }
+
+    // The entry of users with the same id as user, or null; for keeping a selection across refreshes
+    public static User find(List<User> users, User user) {
+        if (user == null) {
+            return null;
+        }
+        for (User candidate : users) {
+            if (candidate.getUserId() != null && candidate.getUserId().equals(user.getUserId())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Sorted by username; null before the first successful fetch
+    private static synchronized List<User> snapshot() {
+        if (version == null) {
+            return null;
+        }
+        List<User> list = new ArrayList<>(users.values());
+        list.sort(Comparator.comparing(User::getUsername, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return list;
+    }
+
+    // Completes with whether the cached users changed; concurrent callers share one request
+    private static synchronized CompletableFuture<Boolean> revalidate() {
+        if (revalidation != null) {
+            return revalidation;
+        }
+        if (version != null && System.currentTimeMillis() - checkedAt < REVALIDATE_AFTER_MS) {
+            return CompletableFuture.completedFuture(false);
+        }
+        String since = version;
+        CompletableFuture<Boolean> started = CompletableFuture.supplyAsync(() -> fetch(since));
+        revalidation = started;
+        started.whenComplete((changed, error) -> {
+            synchronized (OfficerDirectory.class) {
+                if (revalidation == started) {
+                    revalidation = null;
+                }
+            }
+        });
+        return started;
+    }
+
+    private static boolean fetch(String since) {
+        try {
+            String url = since == null ? DIRECTORY_URL
+                    : DIRECTORY_URL + "?since=" + URLEncoder.encode(since, StandardCharsets.UTF_8);
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Authorization", AuthSession.authorization())
+                    .header("Accept", WireFormat.ACCEPT)
+                    .timeout(Duration.ofSeconds(10))
+                    .GET().build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Server answered " + response.statusCode());
+            }
+            DirectoryDelta delta = WireFormat.decode(response.headers().firstValue("Content-Type").orElse(null),
+                    response.body(), DirectoryDelta.class);
+            return apply(delta);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static synchronized boolean apply(DirectoryDelta delta) {
+        boolean changed = delta.isFull() || version == null;
+        if (delta.isFull()) {
+            users.clear();
+        }
+        if (delta.getUsers() != null) {
+            for (User user : delta.getUsers()) {
+                users.put(user.getUserId(), user);
+                changed = true;
+            }
+        }
+        if (delta.getRemoved() != null) {
+            for (String userId : delta.getRemoved()) {
+                changed |= users.remove(userId) != null;
+            }
+        }
+        version = delta.getVersion();
+        checkedAt = System.currentTimeMillis();
+        return changed;
+    }
+}
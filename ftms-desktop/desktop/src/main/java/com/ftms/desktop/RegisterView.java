@@ -143,8 +143,8 @@ public class RegisterView extends VBox { // Changed to VBox
                     Request request = new Request.Builder()
                             .url("http://localhost:8080/api/auth/register")
                             .post(body)
-                            // Include User-Id of the admin performing the registration
-                            .header("User-Id", LoginView.getUserId() != null ? LoginView.getUserId() : "UNKNOWN") // Add logged-in admin's ID
+                            // Only a logged-in admin may register users
+                            .header("Authorization", AuthSession.authorization())
                             .build();
 
                     try (Response response = client.newCall(request).execute()) {
@@ -166,7 +166,7 @@ public class RegisterView extends VBox { // Changed to VBox
                             });
                         }
                     }
-                } catch (IOException | com.google.gson.JsonSyntaxException ex) {
+                } catch (IOException | IllegalStateException | com.google.gson.JsonSyntaxException ex) {
                     final String errorMsg = "Error during registration: " + ex.getMessage();
                     Platform.runLater(() -> {
                         setResultMessage(errorMsg, true);
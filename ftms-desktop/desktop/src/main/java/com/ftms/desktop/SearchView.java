@@ -126,8 +126,9 @@ public class SearchView extends VBox {
                 HttpClient client = HttpClient.newHttpClient();
                 String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8.toString());
                 HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create("http://localhost:8080/api/files/search?query=" + encodedQuery))
-                        .header("User-Id", currentUserId)
+                        .uri(URI.create("http://localhost:8080/api/files/search?query=" + encodedQuery
+                                + "&fields=id,title,status,currentOfficer,courseCode,examSession"))
+                        .header("Authorization", AuthSession.authorization())
                         .GET()
                         .build();
 
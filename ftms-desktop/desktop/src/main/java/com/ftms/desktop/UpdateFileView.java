@@ -17,7 +17,9 @@ import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class UpdateFileView extends VBox {
     private final TextField fileIdField;
@@ -31,9 +33,23 @@ public class UpdateFileView extends VBox {
     private final Label messageLabel;
 
     private String loadedFileCurrentOfficerId = null;
+    private String loadedFileEtag = null;
 
-    private static final String NO_STATUS_CHANGE = "-- No Change --";
-    private static final List<String> STATUS_OPTIONS = Arrays.asList("Draft", "In Progress", "Completed");
+    // Last copy of each file seen by any UpdateFileView, revalidated with If-None-Match
+    private static final Map<String, CachedFile> FILE_CACHE = new ConcurrentHashMap<>();
+
+    private static class CachedFile {
+        final File file;
+        final String etag;
+
+        CachedFile(File file, String etag) {
+            this.file = file;
+            this.etag = etag;
+        }
+    }
+
+    static final String NO_STATUS_CHANGE = "-- No Change --";
+    static final List<String> STATUS_OPTIONS = Arrays.asList("Draft", "In Progress", "Completed");
 
     // Constructor and other methods (loadStyles, configureOfficerComboBoxCellFactories, fetchOfficers, loadFileData) remain the same...
     public UpdateFileView() {
@@ -169,6 +185,7 @@ public class UpdateFileView extends VBox {
             if (updateButton != null && !updateButton.isDisabled()) { // Check if button exists and is enabled
                 updateButton.setDisable(true);
                 loadedFileCurrentOfficerId = null; // Reset loaded officer state
+                loadedFileEtag = null;
                 setMessage("File ID changed or cleared. Please Load File Data again before updating.", false);
             }
             // Optionally clear other fields: clearFieldsExceptId();
@@ -213,35 +230,16 @@ public class UpdateFileView extends VBox {
     }
 
     private void fetchOfficers() {
-        new Thread(() -> {
-            String currentUserId = LoginView.getUserId();
-            if (currentUserId == null) {
-                Platform.runLater(() -> setMessage("Error: Not logged in.", true));
-                return;
-            }
-            try {
-                HttpClient client = HttpClient.newHttpClient();
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create("http://localhost:8080/api/users"))
-                        .header("User-Id", currentUserId)
-                        .GET().build();
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                Platform.runLater(() -> {
-                    if (response.statusCode() == 200) {
-                        User[] users = GsonConfig.getGson().fromJson(response.body(), User[].class);
-                        // Filter out null users if any possibility exists from backend/gson parsing
-                        List<User> validUsers = Arrays.stream(users).filter(java.util.Objects::nonNull).toList();
-                        officerComboBox.getItems().setAll(validUsers); // Set items first
-                        configureOfficerComboBoxCellFactories(); // Then configure display & add null
-                        // setMessage("", false); // Don't clear message during initial setup
-                    } else {
-                        setMessage("Failed to fetch officers: " + response.body(), true);
-                    }
-                });
-            } catch (Exception e) {
-                Platform.runLater(() -> setMessage("Error fetching officers: " + e.getMessage(), true));
-            }
-        }).start();
+        if (LoginView.getUserId() == null) {
+            setMessage("Error: Not logged in.", true);
+            return;
+        }
+        OfficerDirectory.load(users -> {
+            User selected = officerComboBox.getValue();
+            officerComboBox.getItems().setAll(users); // Set items first
+            configureOfficerComboBoxCellFactories(); // Then configure display & add null
+            officerComboBox.setValue(OfficerDirectory.find(users, selected)); // Keep a choice made before a refresh
+        }, error -> setMessage("Error fetching officers: " + error, true));
     }
 
     private void loadFileData() {
@@ -261,49 +259,34 @@ public class UpdateFileView extends VBox {
         clearFieldsExceptId();
         updateButton.setDisable(true);
         loadedFileCurrentOfficerId = null;
+        loadedFileEtag = null;
         setMessage("Loading file data for ID: " + fileId + "...", false);
 
         new Thread(() -> {
             try {
+                CachedFile cached = FILE_CACHE.get(fileId);
                 HttpClient client = HttpClient.newHttpClient();
-                HttpRequest request = HttpRequest.newBuilder()
+                HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                         .uri(URI.create("http://localhost:8080/api/files/" + fileId))
-                        .header("User-Id", currentUserId)
-                        .GET().build();
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        .header("Authorization", AuthSession.authorization())
+                        .GET();
+                if (cached != null && cached.etag != null) {
+                    requestBuilder.header("If-None-Match", cached.etag); // Server answers 304 if our copy is current
+                }
+                HttpResponse<String> response = client.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
 
                 Platform.runLater(() -> {
-                    if (response.statusCode() == 200) {
+                    if (response.statusCode() == 304 && cached != null) {
+                        showLoadedFile(cached.file, cached.etag);
+                        setMessage("File data loaded (unchanged since last load). You can now make changes.", false);
+                    } else if (response.statusCode() == 200) {
                         File file = GsonConfig.getGson().fromJson(response.body(), File.class);
-
-                        loadedFileCurrentOfficerId = file.getCurrentOfficer();
-
-                        titleField.setText(file.getTitle() != null ? file.getTitle() : "");
-                        courseCodeField.setText(file.getCourseCode() != null ? file.getCourseCode() : "");
-                        examSessionField.setText(file.getExamSession() != null ? file.getExamSession() : "");
-
-                        if (file.getStatus() != null && STATUS_OPTIONS.contains(file.getStatus())) {
-                            statusComboBox.setPromptText("Current: " + file.getStatus());
-                            statusComboBox.setValue(NO_STATUS_CHANGE);
-                        } else {
-                            statusComboBox.setPromptText("Select new status (Optional)");
-                            statusComboBox.setValue(NO_STATUS_CHANGE);
-                        }
-
-                        if (loadedFileCurrentOfficerId != null) {
-                            Optional<User> currentOfficer = officerComboBox.getItems().stream()
-                                    .filter(user -> user != null && loadedFileCurrentOfficerId.equals(user.getUserId()))
-                                    .findFirst();
-                            officerComboBox.setPromptText(currentOfficer.map(u -> "Current: " + u.getUsername()).orElse("Current ID: " + loadedFileCurrentOfficerId));
-                            officerComboBox.setValue(null);
-                        } else {
-                            officerComboBox.setPromptText("Select new officer (Optional)");
-                            officerComboBox.setValue(null);
-                        }
-
+                        String etag = response.headers().firstValue("ETag").orElse(null);
+                        FILE_CACHE.put(fileId, new CachedFile(file, etag));
+                        showLoadedFile(file, etag);
                         setMessage("File data loaded. You can now make changes.", false);
-                        updateButton.setDisable(false);
                     } else {
+                        FILE_CACHE.remove(fileId);
                         setMessage("Failed to load file data: " + response.statusCode() + " " + response.body(), true);
                         clearFieldsExceptId();
                         updateButton.setDisable(true);
@@ -319,6 +302,36 @@ public class UpdateFileView extends VBox {
         }).start();
     }
 
+    private void showLoadedFile(File file, String etag) {
+        loadedFileCurrentOfficerId = file.getCurrentOfficer();
+        loadedFileEtag = etag;
+
+        titleField.setText(file.getTitle() != null ? file.getTitle() : "");
+        courseCodeField.setText(file.getCourseCode() != null ? file.getCourseCode() : "");
+        examSessionField.setText(file.getExamSession() != null ? file.getExamSession() : "");
+
+        if (file.getStatus() != null && STATUS_OPTIONS.contains(file.getStatus())) {
+            statusComboBox.setPromptText("Current: " + file.getStatus());
+            statusComboBox.setValue(NO_STATUS_CHANGE);
+        } else {
+            statusComboBox.setPromptText("Select new status (Optional)");
+            statusComboBox.setValue(NO_STATUS_CHANGE);
+        }
+
+        if (loadedFileCurrentOfficerId != null) {
+            Optional<User> currentOfficer = officerComboBox.getItems().stream()
+                    .filter(user -> user != null && loadedFileCurrentOfficerId.equals(user.getUserId()))
+                    .findFirst();
+            officerComboBox.setPromptText(currentOfficer.map(u -> "Current: " + u.getUsername()).orElse("Current ID: " + loadedFileCurrentOfficerId));
+            officerComboBox.setValue(null);
+        } else {
+            officerComboBox.setPromptText("Select new officer (Optional)");
+            officerComboBox.setValue(null);
+        }
+
+        updateButton.setDisable(false);
+    }
+
 
     private void updateFile() {
         String currentUserId = LoginView.getUserId();
@@ -379,23 +392,32 @@ public class UpdateFileView extends VBox {
 
         setMessage("Submitting updates for File ID: " + fileId + "...", false);
         updateButton.setDisable(true); // Disable button during update process
+        final String expectedEtag = loadedFileEtag;
 
         new Thread(() -> {
             try {
                 HttpClient client = HttpClient.newHttpClient();
                 String jsonBody = GsonConfig.getGson().toJson(updatePayload);
 
-                HttpRequest request = HttpRequest.newBuilder()
+                HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                         .uri(URI.create("http://localhost:8080/api/files/" + fileId))
                         .header("Content-Type", "application/json")
-                        .header("User-Id", currentUserId)
-                        .method("PATCH", HttpRequest.BodyPublishers.ofString(jsonBody))
-                        .build();
+                        .header("Authorization", AuthSession.authorization())
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(jsonBody));
+                if (expectedEtag != null) {
+                    requestBuilder.header("If-Match", expectedEtag); // Reject the update if someone changed the file since we loaded it
+                }
 
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> response = client.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
 
                 Platform.runLater(() -> {
-                    if (response.statusCode() == 200) {
+                    if (response.statusCode() == 412) {
+                        FILE_CACHE.remove(fileId);
+                        setMessage("Update rejected: the file was changed by someone else. Click 'Load File Data' to see the latest version.", true);
+                        updateButton.setDisable(true);
+                    } else if (response.statusCode() == 200) {
+                        File updated = GsonConfig.getGson().fromJson(response.body(), File.class);
+                        FILE_CACHE.put(fileId, new CachedFile(updated, response.headers().firstValue("ETag").orElse(null)));
                         setMessage("File updated successfully!", false);
                         // *** CHANGE HERE: Do NOT automatically call loadFileData() ***
                         // Let the success message persist.
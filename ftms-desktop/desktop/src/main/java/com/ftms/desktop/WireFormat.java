@@ -0,0 +1,32 @@
+package com.ftms.desktop;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+// Binary counterpart of GsonConfig for the large list responses (search, audit, users).
+// Requests Smile, which is far smaller than JSON for lists; answers in JSON still go through Gson.
+public class WireFormat {
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String ACCEPT = SMILE + ", application/json;q=0.9";
+
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory())
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false); // Like Gson, skip fields the client has no use for
+
+    public static <T> T decode(String contentType, byte[] body, Type type) throws IOException {
+        if (contentType != null && contentType.startsWith(SMILE)) {
+            return SMILE_MAPPER.readValue(body, SMILE_MAPPER.getTypeFactory().constructType(type));
+        }
+        return GsonConfig.getGson().fromJson(new String(body, StandardCharsets.UTF_8), type);
+    }
+
+    static ObjectMapper getSmileMapper() {
+        return SMILE_MAPPER;
+    }
+}
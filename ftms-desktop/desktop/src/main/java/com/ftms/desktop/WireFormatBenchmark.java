@@ -0,0 +1,138 @@
+package com.ftms.desktop;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Compares payload size and client decode time of JSON (Gson) and Smile (WireFormat).
+//
+//   mvn -q compile exec:java -Dexec.mainClass=com.ftms.desktop.WireFormatBenchmark
+//       [-Dexec.args="<files> | <baseUrl> <token> <query>"]
+//
+// With a number (default 5000) it encodes that many synthetic files and audit entries the way the
+// backend does; with a server URL and a session token from POST /api/auth/login it fetches
+// GET /api/files/search?query=... in both formats instead.
+public class WireFormatBenchmark {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 30;
+    private static final String[] STATUSES = {"Created", "In Transit", "Received", "Under Review", "Archived"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 3) {
+            benchmarkServer(args[0], args[1], args[2]);
+            return;
+        }
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        // Same Smile settings as the backend's converter
+        ObjectMapper smileWriter = new ObjectMapper(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build())
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        List<File> files = syntheticFiles(count);
+        report(count + " files", GsonConfig.getGson().toJson(files).getBytes(StandardCharsets.UTF_8),
+                smileWriter.writeValueAsBytes(files), new TypeToken<List<File>>(){}.getType());
+
+        List<AuditLog> logs = syntheticAuditLogs(count);
+        report(count + " audit entries", GsonConfig.getGson().toJson(logs).getBytes(StandardCharsets.UTF_8),
+                smileWriter.writeValueAsBytes(logs), new TypeToken<List<AuditLog>>(){}.getType());
+    }
+
+    private static void benchmarkServer(String baseUrl, String token, String query) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String url = baseUrl + "/api/files/search?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+        byte[] json = fetch(client, url, token, "application/json");
+        byte[] smile = fetch(client, url, token, WireFormat.SMILE);
+        report("search \"" + query + "\"", json, smile, new TypeToken<List<File>>(){}.getType());
+    }
+
+    private static byte[] fetch(HttpClient client, String url, String token, String accept) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", accept)
+                .GET().build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        if (response.statusCode() != 200 || !contentType.startsWith(accept)) {
+            throw new IllegalStateException("Expected " + accept + " from " + url + ", got "
+                    + response.statusCode() + " " + contentType);
+        }
+        return response.body();
+    }
+
+    private static void report(String label, byte[] json, byte[] smile, Type type) throws Exception {
+        double jsonMs = decodeMillis("application/json", json, type);
+        double smileMs = decodeMillis(WireFormat.SMILE, smile, type);
+        System.out.println(label);
+        System.out.printf("  %-6s %10d bytes  %10d gzipped  %8.2f ms decode%n", "JSON", json.length, gzipped(json), jsonMs);
+        System.out.printf("  %-6s %10d bytes  %10d gzipped  %8.2f ms decode%n", "Smile", smile.length, gzipped(smile), smileMs);
+        System.out.printf("  Smile is %.0f%% of the JSON size and decodes %.1fx as fast%n",
+                100.0 * smile.length / json.length, jsonMs / smileMs);
+    }
+
+    // Median decode time over the measured rounds, after warming up both decoders
+    private static double decodeMillis(String contentType, byte[] body, Type type) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            WireFormat.decode(contentType, body, type);
+        }
+        double[] times = new double[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            List<?> decoded = WireFormat.decode(contentType, body, type);
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+            if (decoded == null) {
+                throw new IllegalStateException("Nothing decoded");
+            }
+        }
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+
+    private static int gzipped(byte[] body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+
+    private static List<File> syntheticFiles(int count) {
+        List<File> files = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 8, 9, 0);
+        for (int i = 0; i < count; i++) {
+            files.add(new File(String.format("0190f%03x-7c1e-7000-8000-%012x", i % 4096, i),
+                    "Exam scripts batch " + i, STATUSES[i % STATUSES.length], "officer" + (i % 40),
+                    "CS" + (100 + i % 60), "2024-" + (i % 2 == 0 ? "May" : "Nov"), "admin" + (i % 3),
+                    start.plusMinutes(i * 7L)));
+        }
+        return files;
+    }
+
+    private static List<AuditLog> syntheticAuditLogs(int count) {
+        List<AuditLog> logs = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 8, 9, 0);
+        for (int i = 0; i < count; i++) {
+            logs.add(new AuditLog(String.format("0190f%03x-7c1e-7000-9000-%012x", i % 4096, i),
+                    "Status changed to " + STATUSES[i % STATUSES.length], "officer" + (i % 40),
+                    String.format("0190f000-7c1e-7000-8000-%012x", i / 20), start.plusSeconds(i * 37L)));
+        }
+        return logs;
+    }
+}
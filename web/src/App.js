@@ -25,6 +25,7 @@ const App = () => {
 
   const handleLogout = () => {
     setUser({ userId: '', username: '', role: '' });
+    localStorage.removeItem('token');
     localStorage.removeItem('userId');
     localStorage.removeItem('username');
     localStorage.removeItem('role');
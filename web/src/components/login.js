@@ -26,6 +26,7 @@ const Login = ({ setUser, showModal }) => {
         username: response.data.username,
         role: response.data.role
       });
+      localStorage.setItem('token', response.data.token);
       localStorage.setItem('userId', response.data.userId);
       localStorage.setItem('username', response.data.username);
       localStorage.setItem('role', response.data.role);
@@ -29,9 +29,8 @@ const RegisterUser = ({ user, showModal }) => {
     }
     
     try {
-      const response = await axios.post('http://localhost:8080/api/auth/register', formData, {
-        headers: { 'User-Id': user.userId }
-      });
+      // The session interceptor adds the admin's token
+      const response = await axios.post('http://localhost:8080/api/auth/register', formData);
       showModal(`User ${response.data.username} registered successfully`);
       setFormData({ username: '', password: '', role: '' });
     } catch (error) {
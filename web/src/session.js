@@ -0,0 +1,26 @@
+import axios from 'axios';
+
+// Sends the session token from login with every backend request. The token is short-lived:
+// a request refused with 401 gets a fresh token from /api/auth/refresh and is sent once more.
+const REFRESH_URL = 'http://localhost:8080/api/auth/refresh';
+
+axios.interceptors.request.use((config) => {
+  const token = localStorage.getItem('token');
+  if (token && !config.headers.Authorization) {
+    config.headers.Authorization = `Bearer ${token}`;
+  }
+  return config;
+});
+
+axios.interceptors.response.use(undefined, async (error) => {
+  const config = error.config;
+  const token = localStorage.getItem('token');
+  if (error.response?.status !== 401 || !token || !config || config._retried || config.url.includes('/api/auth/')) {
+    throw error;
+  }
+  const response = await axios.post(REFRESH_URL, null, { headers: { Authorization: `Bearer ${token}` } });
+  localStorage.setItem('token', response.data.token);
+  config._retried = true;
+  config.headers.Authorization = `Bearer ${response.data.token}`;
+  return axios(config);
+});